@@ -9,7 +9,6 @@ package diver;
  *
  */
 
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -17,7 +16,10 @@ import java.util.List;
 
 //import a7.A7.Item;
 import graph.Edge;
+import graph.GameEvents;
 import graph.Node;
+import graph.NodeMap;
+import graph.ShortestPaths;
 
 /** This class contains the solution to A7, shortest-path algorithm, <br>
  * and other methods for an undirected graph. */
@@ -87,47 +89,76 @@ public class A7 {
 //        return new LinkedList<>();
 //    } 
     public static List<Node> dijkstra(Node v, Node end) {
-    	/* TODO Implement this method.
-    	 * Read the A7 assignment handout for all details.
-    	 * Remember, the graph is undirected. */
-
-    	// Contains an entry for each node in the frontier set. The priority of
-    	// a node is the length of the shortest known path from v to the node
-    	// using only settled nodes except for the last node, which is in F.
-    	Heap<Node> F= new Heap<>(true);
-
-    	// The mapSF keys are all nodes in the settled set S and frontier set F.
-    	// The values are each node's Info, which contains information
-    	// such as its distance and its backpointer.
-    	HashMap<Node, Item> SandF= new HashMap<>();
-
-    	F.insert(v, 0);
-    	SandF.put(v, new Item(0, null));
-
-    	while (F.size() > 0) {
-	        Node f= F.poll();
-	        if (f == end) return path(SandF, end);
-	        int d= SandF.get(f).dist;
-	        for (Edge edge : f.exits()) {
-	            Node w= edge.getOther(f);
-	            Item wInfo= SandF.get(w);
-	            int wDist= d + edge.length;
-	            if (wInfo == null) {
-	                SandF.put(w, new Item(wDist, f));
-	                F.insert(w, wDist);
-	            } else if (wDist < wInfo.dist) {
-	                wInfo.dist= wDist;
-	                wInfo.bkptr= f;
-	                F.changePriority(w, wDist);
-	            }
-	        }
-	    }
-
-    	// no path from v to end. Do not change this
-    	return new LinkedList<>();
+        GameEvents.ShortestPath event= new GameEvents.ShortestPath();
+        event.begin();
+        // Edge weights are small integers, so the bucket-queue search in
+        // ShortestPaths replaces the heap. It settles every node in O(1).
+        ShortestPaths sp= ShortestPaths.search(v, end);
+        List<Node> path= sp.pathTo(sp.graph().index(end));
+        event.end();
+        if (event.shouldCommit()) {
+            event.queue= "buckets";
+            event.settled= sp.settled();
+            event.queueOperations= sp.queueOperations();
+            event.pathNodes= path.size();
+            event.commit();
+        }
+        return path;
+    }
+
+    /** = the shortest path from node v to node end, using F as the frontier <br>
+     * ---or the empty list if a path does not exist. <br>
+     * This is the heap-based algorithm, with the heap passed in so that <br>
+     * different implementations can be compared. Precondition: F is an empty min-heap. */
+    public static List<Node> dijkstra(Node v, Node end, PriorityHeap<Node> F) {
+        GameEvents.ShortestPath event= new GameEvents.ShortestPath();
+        event.begin();
+        List<Node> result= new LinkedList<>();
+        int settled= 0;
+        int heapOperations= 1;
+        F.insert(v, 0);
+        // SandF contains an Item for each settled or frontier node: the length of
+        // the shortest known path from v to it and its backpointer on that path.
+        // Nodes are keyed by grid index, so lookups do not hash.
+        NodeMap<Item> SandF= NodeMap.forSewersOf(v);
+        SandF.put(v, new Item(0, null));
+
+        while (F.size() != 0) {
+            Node f= F.poll();
+            settled++ ;
+            heapOperations++ ;
+            if (f == end) {
+                result= path(SandF, end);
+                break;
+            }
+            int fDist= SandF.get(f).dist;
+            for (Edge e : f.exits()) {
+                int wDist= fDist + e.length;
+                Node w= e.getOther(f);
+                Item wItem= SandF.get(w);
+                if (wItem == null) {
+                    F.insert(w, wDist);
+                    SandF.put(w, new Item(wDist, f));
+                    heapOperations++ ;
+                } else if (wDist < wItem.dist) {
+                    wItem.bkptr= f;
+                    wItem.dist= wDist;
+                    F.changePriority(w, wDist);
+                    heapOperations++ ;
+                }
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.queue= F.getClass().getSimpleName();
+            event.settled= settled;
+            event.queueOperations= heapOperations;
+            event.pathNodes= result.size();
+            event.commit();
+        }
+        // result is empty if there is no path from v to end.
+        return result;
     }
-    
-    
 
     /** An instance contains info about a node: <br>
      * the known shortest distance of this node from the start node and <br>
@@ -157,7 +188,7 @@ public class A7 {
     /** = the path from the start node to node end.<br>
      * Precondition: SandF contains all the necessary information about<br>
      * ............. the path. */
-    public static List<Node> path(HashMap<Node, Item> SandF, Node end) {
+    public static List<Node> path(NodeMap<Item> SandF, Node end) {
         List<Node> path= new LinkedList<>();
         Node p= end;
         // invariant: All the nodes from p's successor to node
@@ -0,0 +1,141 @@
+package diver;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/** An instance is a 4-ary min-heap of distinct values of type T with priorities of<br>
+ * type double. A node has four children instead of two, so the tree is half as deep:<br>
+ * bubbling up touches fewer levels, and the four children of a node sit next to each<br>
+ * other in the arrays. Values and priorities are kept in parallel arrays, so no object<br>
+ * is allocated per value except the map entry. */
+public final class DaryHeap<T> implements PriorityHeap<T> {
+	/** Number of children of a node */
+	private static final int D= 4;
+
+	/** Class Invariant: <br>
+	 * 1. vals[0..size-1] represents a complete 4-ary tree. vals[0] is the root. <br>
+	 * For k > 0, (k-1)/4 is the parent of k; 4k+1..4k+4 are the children of k. <br>
+	 * 2. pri[k] is the priority of vals[k]. The values are all different. <br>
+	 * 3. For k in 1..size-1, pri[parent of k] <= pri[k]. <br>
+	 * 4. The keys of map are vals[0..size-1], and map.get(vals[k]) = k. */
+	private Object[] vals;
+	private double[] pri;
+	private int size;
+	private final HashMap<T, Integer> map;
+
+	/** Constructor: an empty heap. */
+	public DaryHeap() {
+		vals= new Object[16];
+		pri= new double[16];
+		map= new HashMap<>();
+	}
+
+	/** Constructor: a heap containing the keys of items, each with the priority it <br>
+	 * maps to, built bottom-up (Floyd) in time linear in the number of items. */
+	public DaryHeap(Map<T, Double> items) {
+		vals= new Object[Math.max(16, items.size())];
+		pri= new double[vals.length];
+		map= new HashMap<>();
+		for (Map.Entry<T, Double> e : items.entrySet()) {
+			vals[size]= e.getKey();
+			pri[size]= e.getValue();
+			map.put(e.getKey(), size);
+			size++ ;
+		}
+		for (int k= (size - 2) / D; k >= 0; k-- ) {
+			bubbleDown(k);
+		}
+	}
+
+	@Override
+	public void insert(T v, double p) {
+		if (map.containsKey(v)) throw new IllegalArgumentException("v already in the heap");
+		if (size == vals.length) {
+			vals= Arrays.copyOf(vals, 2 * size);
+			pri= Arrays.copyOf(pri, 2 * size);
+		}
+		vals[size]= v;
+		pri[size]= p;
+		map.put(v, size);
+		size++ ;
+		bubbleUp(size - 1);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public T peek() {
+		if (size == 0) throw new NoSuchElementException("heap is empty");
+		return value(0);
+	}
+
+	@Override
+	public T poll() {
+		if (size == 0) throw new NoSuchElementException("heap is empty");
+		T v= value(0);
+		swap(0, size - 1);
+		map.remove(v);
+		size-- ;
+		vals[size]= null;
+		bubbleDown(0);
+		return v;
+	}
+
+	@Override
+	public void changePriority(T v, double p) {
+		Integer k= map.get(v);
+		if (k == null) throw new IllegalArgumentException("v is not in the heap");
+		double old= pri[k];
+		pri[k]= p;
+		if (p < old) bubbleUp(k);
+		else if (p > old) bubbleDown(k);
+	}
+
+	/** Return the value in position k. */
+	@SuppressWarnings("unchecked")
+	private T value(int k) {
+		return (T) vals[k];
+	}
+
+	/** Swap positions h and k, keeping map in sync. */
+	private void swap(int h, int k) {
+		Object tv= vals[h];
+		vals[h]= vals[k];
+		vals[k]= tv;
+		double tp= pri[h];
+		pri[h]= pri[k];
+		pri[k]= tp;
+		map.put(value(h), h);
+		map.put(value(k), k);
+	}
+
+	/** Bubble position k up to its right place. */
+	private void bubbleUp(int k) {
+		while (k > 0) {
+			int p= (k - 1) / D;
+			if (pri[k] >= pri[p]) return;
+			swap(k, p);
+			k= p;
+		}
+	}
+
+	/** Bubble position k down to its right place. */
+	private void bubbleDown(int k) {
+		while (D * k + 1 < size) {
+			// Set c to the child with the smallest priority
+			int c= D * k + 1;
+			int last= Math.min(c + D, size);
+			for (int i= c + 1; i < last; i++ ) {
+				if (pri[i] < pri[c]) c= i;
+			}
+			if (pri[k] <= pri[c]) return;
+			swap(k, c);
+			k= c;
+		}
+	}
+}
@@ -0,0 +1,189 @@
+package diver;
+
+import java.util.Arrays;
+
+import graph.SeekState;
+
+/** An instance finds the ring in a seek phase by best-first search over the part of<br>
+ * the sewer system seen so far.
+ *
+ * Every node McDiver stands on is expanded: forEachNeighbor() tells its neighbors<br>
+ * and their distances to the ring, which are added to the known graph. The frontier<br>
+ * is the known nodes not yet expanded. At each decision, McDiver goes to the<br>
+ * frontier node f that minimizes d(f) + h(f), where d(f) is the number of moves<br>
+ * from McDiver to f over known edges and h(f) is f's distance to the ring along the<br>
+ * grid, and walks to it along a shortest known path. Ties go to the f closest to<br>
+ * the ring, which keeps McDiver going deeper instead of switching between branches<br>
+ * that look equally good. Unlike a depth-first walk, which backs out of a dead end<br>
+ * one edge at a time and then tries the next branch of the same node, this jumps<br>
+ * straight to the most promising node seen anywhere.
+ *
+ * The known graph only grows, so decisions are replanned from scratch over it, but<br>
+ * cheaply: the search from McDiver is breadth-first (every move costs one step)<br>
+ * over arrays reused from decision to decision, and it prunes every node from<br>
+ * which no frontier node can be as good as the best one found. A move changes h by<br>
+ * at most 1, so d + h never drops along a path; when a neighbor is closer to the<br>
+ * ring, the search therefore looks only at the nodes McDiver can reach without<br>
+ * moving away from it. */
+public final class FrontierSeeker {
+
+	/** The seek state McDiver moves in */
+	private final SeekState state;
+
+	/** index maps the ID of each known node to its index in the arrays below. */
+	private final LongIntMap index= new LongIntMap();
+
+	/** Class Invariant: for each index v < size of a known node: <br>
+	 * 1. id[v] is its ID and h[v] is its distance to the ring along the grid. <br>
+	 * 2. expanded[v] is true iff McDiver has stood on it. <br>
+	 * 3. adj[v][0..degree[v]-1] are the indexes of its known neighbors. <br>
+	 * .. If expanded[v], these are all of its neighbors. */
+	private long[] id= new long[64];
+	private int[] h= new int[64];
+	private boolean[] expanded= new boolean[64];
+	private int[][] adj= new int[64][];
+	private int[] degree= new int[64];
+	private int size;
+
+	/** Search arrays, reused by each call of plan(): node v was reached in the search <br>
+	 * numbered stamp iff mark[v] = stamp, and then dist[v] is its distance from the <br>
+	 * start over known edges and parent[v] the node before it on a shortest path. */
+	private int[] mark= new int[64];
+	private int[] dist= new int[64];
+	private int[] parent= new int[64];
+	private int[] queue= new int[64];
+	private int stamp;
+
+	/** The node expand() is recording the neighbors of */
+	private int expanding;
+
+	/** addNeighbor(long, int) as a consumer, created once so that expanding a node <br>
+	 * allocates nothing */
+	private final SeekState.NeighborConsumer addNeighbor= this::addNeighbor;
+
+	/** Constructor: a seeker that moves McDiver in state. */
+	public FrontierSeeker(SeekState state) {
+		this.state= state;
+	}
+
+	/** Move McDiver until it stands on the ring. */
+	public void seek() {
+		int here= node(state.currentLocation(), state.distanceToRing());
+		while (h[here] != 0) {
+			expand(here);
+			int goal= plan(here);
+			if (goal < 0) {
+				throw new IllegalStateException("seek: the ring cannot be reached");
+			}
+			walkTo(goal);
+			here= goal;
+		}
+	}
+
+	/** Record the neighbors of node v, where McDiver stands, unless v is expanded. */
+	private void expand(int v) {
+		if (expanded[v]) return;
+		expanded[v]= true;
+		expanding= v;
+		state.forEachNeighbor(addNeighbor);
+	}
+
+	/** Record that the node with ID nodeId and distance ringDis to the ring is a <br>
+	 * neighbor of node expanding. */
+	private void addNeighbor(long nodeId, int ringDis) {
+		int u= node(nodeId, ringDis);
+		if (!expanded[u]) {
+			// Edges between expanded nodes are already known.
+			addNeighbor(expanding, u);
+			addNeighbor(u, expanding);
+		}
+	}
+
+	/** Return the frontier node with the least d + h from node start (of the ones with <br>
+	 * the least d + h, the one closest to the ring, then the first found), <br>
+	 * or -1 if the frontier is empty. Leave in parent a shortest known path to it. */
+	private int plan(int start) {
+		stamp++ ;
+		mark[start]= stamp;
+		dist[start]= 0;
+		queue[0]= start;
+		int head= 0, tail= 1;
+		int best= -1, bestF= Integer.MAX_VALUE;
+		while (head < tail) {
+			int v= queue[head];
+			head++ ;
+			// Nodes after v in the queue are no closer to start, so nothing reached
+			// from them has d + h <= bestF.
+			if (dist[v] + 1 > bestF) break;
+			// Each move gets at most 1 closer to the ring, so d + h does not drop below
+			// dist[v] + h[v] beyond v.
+			if (dist[v] + h[v] > bestF) continue;
+			for (int k= 0; k < degree[v]; k++ ) {
+				int u= adj[v][k];
+				if (mark[u] == stamp) continue;
+				mark[u]= stamp;
+				dist[u]= dist[v] + 1;
+				parent[u]= v;
+				if (!expanded[u]) {
+					if (dist[u] + h[u] < bestF || dist[u] + h[u] == bestF && h[u] < h[best]) {
+						bestF= dist[u] + h[u];
+						best= u;
+					}
+				} else {
+					// Frontier nodes are only walked to, never through.
+					queue[tail]= u;
+					tail++ ;
+				}
+			}
+		}
+		return best;
+	}
+
+	/** Move McDiver along the path to node goal that plan() left in parent. */
+	private void walkTo(int goal) {
+		int n= dist[goal];
+		int[] path= new int[n];
+		for (int v= goal, k= n - 1; k >= 0; v= parent[v], k-- ) {
+			path[k]= v;
+		}
+		for (int v : path) {
+			state.moveTo(id[v]);
+		}
+	}
+
+	/** Return the index of the node with ID nodeId, adding it with distance ringDis <br>
+	 * to the ring if it is not known. */
+	private int node(long nodeId, int ringDis) {
+		int v= index.get(nodeId, -1);
+		if (v >= 0) return v;
+		if (size == id.length) grow();
+		v= size;
+		size++ ;
+		id[v]= nodeId;
+		h[v]= ringDis;
+		adj[v]= new int[4];
+		index.put(nodeId, v);
+		return v;
+	}
+
+	/** Add node u to the known neighbors of node v. */
+	private void addNeighbor(int v, int u) {
+		if (degree[v] == adj[v].length) adj[v]= Arrays.copyOf(adj[v], 2 * degree[v]);
+		adj[v][degree[v]]= u;
+		degree[v]++ ;
+	}
+
+	/** Double the capacity of the node arrays. */
+	private void grow() {
+		int n= 2 * id.length;
+		id= Arrays.copyOf(id, n);
+		h= Arrays.copyOf(h, n);
+		expanded= Arrays.copyOf(expanded, n);
+		adj= Arrays.copyOf(adj, n);
+		degree= Arrays.copyOf(degree, n);
+		mark= Arrays.copyOf(mark, n);
+		dist= Arrays.copyOf(dist, n);
+		parent= Arrays.copyOf(parent, n);
+		queue= Arrays.copyOf(queue, n);
+	}
+}
@@ -13,7 +13,7 @@ import java.util.*;
 
 /** An instance is a max-heap or a min-heap of distinct values of type T <br>
  * with priorities of type double. */
-public final class Heap<T> {
+public final class Heap<T> implements PriorityHeap<T> {
 
 	/** Replace "-1" by the time you spent on A2 in hours.<br>
 	 * Example: for 3 hours 15 minutes, use 3.25<br>
@@ -53,6 +53,25 @@ public final class Heap<T> {
 		map= new HashMap<>();
 	}
 
+	/** Constructor: a heap containing the keys of items, each with the priority <br>
+	 * it maps to. It is a min-heap if isMin is true and a max-heap if isMin is false.<br>
+	 * This uses Floyd's bottom-up construction: the values are put in b in any order <br>
+	 * and then every value with a child is bubbled down, last one first. <br>
+	 * That takes time linear in the number of items, instead of n log n for n inserts. */
+	public Heap(boolean isMin, Map<T, Double> items) {
+		isMinHeap= isMin;
+		b= createPairArray(Math.max(10, items.size()));
+		map= new HashMap<>();
+		for (Map.Entry<T, Double> e : items.entrySet()) {
+			map.put(e.getKey(), size);
+			b[size]= new Pair(e.getKey(), e.getValue());
+			size= size + 1;
+		}
+		for (int h= size / 2 - 1; h >= 0; h-- ) {
+			bubbleDown(h);
+		}
+	}
+
 	/** If size = length of b, double the length of array b. <br>
 	 * The worst-case time is proportional to the length of b. */
 	protected void ensureSpace() {
@@ -79,6 +98,7 @@ public final class Heap<T> {
 	 * Throw an illegalArgumentException if v is already in the heap. <br>
 	 * The expected time is logarithmic and <br>
 	 * the worst-case time is linear in the size of the heap. */
+	@Override
 	public void insert(T v, double p) throws IllegalArgumentException {
 		// TODO #2: Write this whole method. Note that bubbleUp is not implemented,
 		// so calling it has no effect (yet). The first tests of insert, using
@@ -102,6 +122,7 @@ public final class Heap<T> {
 
 	/** Return the size of this heap. <br>
 	 * This operation takes constant time. */
+	@Override
 	public int size() { // Do not change this method
 		return size;
 	}
@@ -186,6 +207,7 @@ public final class Heap<T> {
 	 * Do not change the heap. <br>
 	 * This operation takes constant time. <br>
 	 * Throw a NoSuchElementException if the heap is empty. */
+	@Override
 	public T peek() {
 		// TODO 5: Do peek. This is an easy one.
 
@@ -227,6 +249,7 @@ public final class Heap<T> {
 	 * If this is a max-heap, remove and return heap value with highest priority. <br>
 	 * Expected time: logarithmic. Worst-case time: linear in the size of the heap.<br>
 	 * Throw a NoSuchElementException if the heap is empty. */
+	@Override
 	public T poll() {
 		// TODO 7: When this method correct, these testing procedure will find no errors:
 		// test60Poll_BubbleDown_NoDups thru
@@ -244,6 +267,7 @@ public final class Heap<T> {
 	/** Change the priority of value v to p. <br>
 	 * Expected time: logarithmic. Worst-case time: linear in the size of the heap.<br>
 	 * Throw an IllegalArgumentException if v is not in the heap. */
+	@Override
 	public void changePriority(T v, double p) {
 		// TODO 8: When this method is correct, all testing procedures
 		// will find no errors.
@@ -0,0 +1,123 @@
+package diver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import graph.GameState;
+import graph.Node;
+import graph.Sewers;
+
+/** Compares the PriorityHeap implementations on the workload McDiver gives them:<br>
+ * A7.dijkstra from the entrance of a sewer system to its ring and from the entrance<br>
+ * to every other node.
+ *
+ * Each backend first runs the workload a few times untimed so that the JIT has<br>
+ * compiled it, then runs it several times timed, and the best and median times are<br>
+ * reported. Every backend must find paths of the same lengths as the binary Heap;<br>
+ * if one does not, an IllegalStateException is thrown.
+ *
+ * Usage: HeapBenchmark [-n sewers] [-s seed] [-r rows] [-c cols] */
+public final class HeapBenchmark {
+
+	/** Number of untimed and timed runs of the workload per backend */
+	private static final int WARMUP= 5, RUNS= 10;
+
+	/** The backends, by name, in the order they are reported */
+	private static final Map<String, Supplier<PriorityHeap<Node>>> BACKENDS= new LinkedHashMap<>();
+	static {
+		BACKENDS.put("Heap", () -> new Heap<>(true));
+		BACKENDS.put("DaryHeap", DaryHeap::new);
+		BACKENDS.put("PairingHeap", PairingHeap::new);
+		BACKENDS.put("RadixHeap", RadixHeap::new);
+	}
+
+	/** The results of the timed runs, kept so that the JIT cannot drop the work */
+	private static volatile long sink;
+
+	private HeapBenchmark() {}
+
+	/** A query: a start node and an end node */
+	private static final class Query {
+		private final Node start, end;
+
+		private Query(Node s, Node e) {
+			start= s;
+			end= e;
+		}
+	}
+
+	public static void main(String[] args) {
+		List<String> argList= Arrays.asList(args);
+		int count= intArg(argList, "-n", 50);
+		long seed= intArg(argList, "-s", 1);
+		int rows= intArg(argList, "-r", GameState.MAX_ROWS);
+		int cols= intArg(argList, "-c", GameState.MAX_COLS);
+
+		List<Query> queries= new ArrayList<>();
+		Random rand= new Random(seed);
+		for (int i= 0; i < count; i++ ) {
+			Sewers s= Sewers.digExploreSewer(rows, cols, rand);
+			queries.add(new Query(s.entrance(), s.ring()));
+			for (Node n : s.graph()) {
+				queries.add(new Query(s.entrance(), n));
+			}
+		}
+
+		int[] expected= lengths(queries, BACKENDS.get("Heap"));
+		System.out.println(count + " sewers of " + rows + "x" + cols + ", " +
+			queries.size() + " queries");
+		for (Map.Entry<String, Supplier<PriorityHeap<Node>>> e : BACKENDS.entrySet()) {
+			if (!Arrays.equals(expected, lengths(queries, e.getValue()))) {
+				throw new IllegalStateException(e.getKey() + " found a path of the wrong length");
+			}
+			for (int i= 0; i < WARMUP; i++ ) {
+				run(queries, e.getValue());
+			}
+			long[] times= new long[RUNS];
+			for (int i= 0; i < RUNS; i++ ) {
+				long start= System.nanoTime();
+				sink= sink + run(queries, e.getValue());
+				times[i]= System.nanoTime() - start;
+			}
+			Arrays.sort(times);
+			System.out.printf("%-12s best %8.2f ms   median %8.2f ms%n", e.getKey(),
+				times[0] / 1e6, times[RUNS / 2] / 1e6);
+		}
+	}
+
+	/** Run every query with a new heap from backend and return the sum of the <br>
+	 * numbers of nodes on the paths. */
+	private static long run(List<Query> queries, Supplier<PriorityHeap<Node>> backend) {
+		long sum= 0;
+		for (Query q : queries) {
+			sum= sum + A7.dijkstra(q.start, q.end, backend.get()).size();
+		}
+		return sum;
+	}
+
+	/** Return the lengths of the paths backend finds for queries. */
+	private static int[] lengths(List<Query> queries, Supplier<PriorityHeap<Node>> backend) {
+		int[] lengths= new int[queries.size()];
+		for (int i= 0; i < lengths.length; i++ ) {
+			Query q= queries.get(i);
+			lengths[i]= A7.sumOfPath(A7.dijkstra(q.start, q.end, backend.get()));
+		}
+		return lengths;
+	}
+
+	/** Return the int following flag in args, or def if flag is not there. */
+	private static int intArg(List<String> args, String flag, int def) {
+		int k= args.indexOf(flag);
+		if (k < 0 || k + 1 >= args.size()) return def;
+		try {
+			return Integer.parseInt(args.get(k + 1));
+		} catch (NumberFormatException e) {
+			return def;
+		}
+	}
+}
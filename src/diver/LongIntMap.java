@@ -0,0 +1,86 @@
+package diver;
+
+/** An instance is a map from long keys to int values, stored in parallel primitive<br>
+ * arrays with open addressing and linear probing, so no object is allocated per entry.<br>
+ * Keys can be any long, including 0: a separate array marks the used slots. */
+final class LongIntMap {
+
+	/** Class Invariant: <br>
+	 * 1. keys.length = values.length = used.length is a power of 2. <br>
+	 * 2. The entries are (keys[i], values[i]) for the i with used[i] true. <br>
+	 * 3. An entry with key k is in the first slot that is not used, or holds k, <br>
+	 * .. in the sequence slot(k), slot(k)+1, ... (wrapping around). <br>
+	 * 4. size is the number of entries, and size <= keys.length / 2. */
+	private long[] keys;
+	private int[] values;
+	private boolean[] used;
+	private int size;
+
+	/** Constructor: an empty map. */
+	LongIntMap() {
+		keys= new long[16];
+		values= new int[16];
+		used= new boolean[16];
+	}
+
+	/** Return true iff there is an entry with key k. */
+	boolean containsKey(long k) {
+		return used[find(k)];
+	}
+
+	/** Return the value of key k, or def if there is no entry with key k. */
+	int get(long k, int def) {
+		int i= find(k);
+		return used[i] ? values[i] : def;
+	}
+
+	/** Make v the value of key k, adding an entry if there is none. */
+	void put(long k, int v) {
+		int i= find(k);
+		if (!used[i]) {
+			if (2 * (size + 1) > keys.length) {
+				grow();
+				i= find(k);
+			}
+			used[i]= true;
+			keys[i]= k;
+			size++ ;
+		}
+		values[i]= v;
+	}
+
+	/** Return the slot that holds key k or, if there is none, the free slot where <br>
+	 * an entry for k would go. */
+	private int find(long k) {
+		int mask= keys.length - 1;
+		int i= slot(k) & mask;
+		while (used[i] && keys[i] != k) {
+			i= i + 1 & mask;
+		}
+		return i;
+	}
+
+	/** Return a hash of k that spreads nearby keys over the table. */
+	private static int slot(long k) {
+		long h= k * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ h >>> 32);
+	}
+
+	/** Double the capacity of the table. */
+	private void grow() {
+		long[] oldKeys= keys;
+		int[] oldValues= values;
+		boolean[] oldUsed= used;
+		keys= new long[2 * oldKeys.length];
+		values= new int[keys.length];
+		used= new boolean[keys.length];
+		for (int i= 0; i < oldKeys.length; i++ ) {
+			if (oldUsed[i]) {
+				int j= find(oldKeys[i]);
+				used[j]= true;
+				keys[j]= oldKeys[i];
+				values[j]= oldValues[i];
+			}
+		}
+	}
+}
@@ -1,20 +1,53 @@
 package diver;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.PriorityQueue;
 
+import graph.CsrGraph;
 import graph.Node;
+import graph.NodeBitSet;
 import graph.NodeStatus;
 import graph.ScramState;
 import graph.SeekState;
 import graph.SewerDiver;
+import graph.ShortestPaths;
 
 
 public class McDiver extends SewerDiver {
 
+    /** The ways McDiver can seek the ring */
+    public enum Seek {
+        /** seekFrontier: best-first search over the nodes seen so far */
+        FRONTIER,
+        /** mySeek2: the walk to the unvisited neighbor closest to the ring */
+        DEPTH_FIRST
+    }
+
+    /** The ways McDiver can scram */
+    public enum Scram {
+        /** scramOrienteering: the route an OrienteeringSolver plans */
+        ORIENTEERING,
+        /** scramFinal: go to the best coin by coins per distance, one at a time */
+        GREEDY
+    }
+
+    /** The ways McDiver seeks the ring and scrams */
+    private final Seek seekStrategy;
+    private final Scram scramStrategy;
+
+    /** Constructor: a McDiver that seeks with seekFrontier and scrams with <br>
+     * scramOrienteering. */
+    public McDiver() {
+        this(Seek.FRONTIER, Scram.ORIENTEERING);
+    }
+
+    /** Constructor: a McDiver that seeks with seek and scrams with scram, so that <br>
+     * the strategies can be compared on the same games. */
+    public McDiver(Seek seek, Scram scram) {
+        seekStrategy= seek;
+        scramStrategy= scram;
+    }
+
     /** Find the ring in as few steps as possible. Once you get there, <br>
      * you must return from this function in order to pick<br>
      * it up. If you continue to move after finding the ring rather <br>
@@ -55,14 +88,17 @@ public class McDiver extends SewerDiver {
     	
     	// calling my own method
 //    	mySeek1(state);
-    	mySeek2(state, Long.valueOf(0));
+    	if (seekStrategy == Seek.DEPTH_FIRST) {
+    		mySeek2(state, Long.valueOf(0));
+    	} else {
+    		seekFrontier(state);
+    	}
 
     }
     
-    /**
-     * Data structure to hold the ID's of the nodes that have been visited. 
-     */
-    ArrayList<Long[]> visited = new ArrayList<>();
+    /** visitOrder maps the ID of each node visited in the seek phase to the number <br>
+     * of the step at which it was last visited (0 for the entrance). */
+    private final LongIntMap visitOrder= new LongIntMap();
 
 //    /** 
 //     * 
@@ -90,72 +126,56 @@ public class McDiver extends SewerDiver {
 //    		}
 //    	}
 //    }
-    public void mySeek2(SeekState state, Long n) { 
-    	long currLoc = state.currentLocation();
-    	int ringDis = state.distanceToRing();
-    	int minDis = state.distanceToRing()+2;
-    	Long minVisited = 2*n;
-    	NodeStatus destination = null;
-    	NodeStatus destinationVisited = null;
-    	if(ringDis == 0) return;
-    	int i = 0;
-    	while (i < visited.size()) {
-    		if (currLoc == (visited.get(i)[0])) {
-    			visited.remove(i);
-    		} else {
-    			i++;
-    		}
-    	}
-    	visited.add(new Long[] {currLoc, n});
-    	for (NodeStatus w: state.neighbors()) { 
-    		if(!visited(w.getId())) { 
-    			int wDis = w.getDistanceToRing();
-    			if (wDis < minDis) { 
-    				minDis = wDis;
-    				destination = w;
-    			}
-    		} else {
-    			for (Long[] l : visited) {
-    				if (l[0].equals(w.getId()) ) {
-    					if (l[1] < minVisited) {
-    						minVisited = l[1];
-    						destinationVisited = w;
-    					}
-    					break;
-    				}
-    			}
-    		}
-    	}
-    	if(destination != null) { 
-    		state.moveTo(destination.getId());
-			mySeek2(state, n+1);
-			if(state.distanceToRing() == 0) return;
-			state.moveTo(currLoc);
-    	} else {
-    		state.moveTo(destinationVisited.getId());
-    		mySeek2(state, n+1);
-			if(state.distanceToRing() == 0) return;
-			state.moveTo(currLoc);
-    	}
+    /** Walk from the current node until the ring is found, n being the number of <br>
+     * the current step. At each step, go to the unvisited neighbor closest to the <br>
+     * ring if it is not more than one farther than here; if there is none, go to <br>
+     * the visited neighbor that was visited longest ago (before step 2n).
+     *
+     * This was written recursively, one call per step, with a move back after each <br>
+     * call. But a call returned only once the ring was found, so the moves back never <br>
+     * happened: each step only goes forward. The loop below takes the same moves <br>
+     * with no recursion, and keeps the visit orders in a hash map instead of a list. */
+    public void mySeek2(SeekState state, Long n) {
+        for (long step= n;; step++ ) {
+            long currLoc= state.currentLocation();
+            int ringDis= state.distanceToRing();
+            if (ringDis == 0) return;
+            int minDis= ringDis + 2;
+            long minVisited= 2 * step;
+            NodeStatus destination= null;
+            NodeStatus destinationVisited= null;
+            visitOrder.put(currLoc, (int) step);
+            for (NodeStatus w : state.neighbors()) {
+                if (!visited(w.getId())) {
+                    int wDis= w.getDistanceToRing();
+                    if (wDis < minDis) {
+                        minDis= wDis;
+                        destination= w;
+                    }
+                } else {
+                    int wOrder= visitOrder.get(w.getId(), 0);
+                    if (wOrder < minVisited) {
+                        minVisited= wOrder;
+                        destinationVisited= w;
+                    }
+                }
+            }
+            if (destination == null) destination= destinationVisited;
+            state.moveTo(destination.getId());
+        }
     }
 
-    /**
-     * 
-     * @param nodeId
-     * @return true if the node with the corresponding node ID has been marked as visited.
-     * 
-     * <br> 
-     * 
-     * Used as a helper method for the mySeek1 method in the seek phase. 
-     * 
-     */
-    public boolean visited(long nodeId) { 
+    /** Walk to the ring by best-first search over the nodes seen so far: at each <br>
+     * decision, go along a shortest known path to the unexplored node that is <br>
+     * closest to the ring counting the moves to get there. Unlike mySeek2, it never <br>
+     * retraces a dead end one edge at a time, so it takes fewer steps. */
+    public void seekFrontier(SeekState state) {
+        new FrontierSeeker(state).seek();
+    }
 
-    	for (Long[] id: visited) { 
-    		if(id[0] == nodeId) return true; 
-    	}
-    	
-    	return false;
+    /** Return true if the node with ID nodeId has been visited in the seek phase. */
+    public boolean visited(long nodeId) {
+        return visitOrder.containsKey(nodeId);
     }
 
     /** Scram --get out of the sewer system before the steps are all used, trying to <br>
@@ -187,213 +207,104 @@ public class McDiver extends SewerDiver {
         // TODO: Get out of the sewer system before the steps are used up.
         // DO NOT WRITE ALL THE CODE HERE. Instead, write your method elsewhere,
         // with a good specification, and call it from this one.
-//    	safeScram(state);
-    	//scramVersion2(state);
-    	scramFinal(state);
+    	if (scramStrategy == Scram.GREEDY) {
+    		scramFinal(state);
+    	} else {
+    		scramOrienteering(state);
+    	}
     }
     
     
     
 
   
-    /**
-     * 
-     * @param s
-     * Uses A7 dijkstra's shortest path algorithm to return a list of the shortest path from the 
-     * start node to the end node (the exit). Then we move through this given list to the exit. This results in the shortest time to exit, but not the most coins.
-     * 
-     * 
-     */
-    public void safeScram(ScramState s) { 
-    	List<Node> shortestPath = A7.dijkstra(s.currentNode(), s.exit());
-    	shortestPath.remove(0);
-    	for ( Node n: shortestPath) { 
-    		if( n.equals(s.exit())) { 
-    			s.moveTo(n);
-    			return;
-    		}
-    		else {
-    			s.moveTo(n);
-    		}
-    	}  	
-    	
-    }
-    
-    
-    ArrayList<Node> ScramVisited = new ArrayList<>();
-    
-    public void scramFinal(ScramState s) { 
+    /** The nodes visited in the scram stage (null until the first node is marked, <br>
+     * which gives its sewer system) */
+    private NodeBitSet scramVisitedSet;
 
-    	int stepsLeft = s.stepsToGo();
-		List<Node> pathToExit = A7.dijkstra(s.currentNode(), s.exit());
-    	int currentNodeToExitSteps = A7.sumOfPath(pathToExit); 
-    	
-    	
-    	
-    	while(stepsLeft >= currentNodeToExitSteps ) { 
-    		stepsLeft = s.stepsToGo();
-    		double maxPoints = 0;
-    		Node highestNode = null;
-    		for( Node n: s.allNodes()) { 
-//    			if(n.getTile().type().name().equals("RING")) { 
-//    				break;
-//    			}
-    			int tileValue = n.getTile().coins();
-    			double denom =  ((double) (Math.pow(A7.sumOfPath(A7.dijkstra(s.currentNode(), n)), 3) * A7.sumOfPath(A7.dijkstra(n, s.exit()))));
-    			//double curPoints = Math.pow(tileValue, 10) / ((double) A7.sumOfPath(A7.dijkstra(s.currentNode(), n)) * Math.pow(A7.sumOfPath(A7.dijkstra(n, s.exit())), 3));
+    /** Repeatedly go to the unvisited node with the best ratio of coins to distance <br>
+     * (from here, cubed, times distance from there to the exit), as long as the steps <br>
+     * left allow it, then go to the exit.
+     *
+     * Distances to the exit do not change as McDiver moves, so they are computed once, <br>
+     * by one search from the exit (the graph is undirected). Each choice then needs <br>
+     * one search from the current node, which gives the distance to every node and <br>
+     * the same shortest paths A7.dijkstra would give. */
+    public void scramFinal(ScramState s) {
+        int stepsLeft= s.stepsToGo();
+        ShortestPaths fromExit= ShortestPaths.searchAll(s.exit());
+        CsrGraph g= fromExit.graph();
+        int currentNodeToExitSteps= length(fromExit, g.index(s.currentNode()));
+        Collection<Node> nodes= s.allNodes();
 
-    			//double curPoints = Math.pow(tileValue, 10) / ((double) (Math.pow(A7.sumOfPath(A7.dijkstra(s.currentNode(), n)), 3) * Math.pow(A7.sumOfPath(A7.dijkstra(n, s.exit())), 3)));
-    			double curPoints = Math.pow(tileValue, 10) / denom;
+        while (stepsLeft >= currentNodeToExitSteps) {
+            stepsLeft= s.stepsToGo();
+            ShortestPaths fromCurrent= ShortestPaths.searchAll(s.currentNode());
+            double maxPoints= 0;
+            Node highestNode= null;
+            for (Node n : nodes) {
+                int tileValue= s.coinsAt(n);
+                // A node without coins scores 0 (or NaN), which never beats maxPoints.
+                if (tileValue == 0) continue;
+                int v= g.index(n);
+                double denom= Math.pow(length(fromCurrent, v), 3) * length(fromExit, v);
+                double curPoints= Math.pow(tileValue, 10) / denom;
+                if (curPoints > maxPoints && !scramVisited(n)) {
+                    markScramVisited(n);
+                    maxPoints= curPoints;
+                    highestNode= n;
+                }
+            }
+            if (highestNode == null) break;
+            int h= g.index(highestNode);
+            if (stepsLeft <= length(fromCurrent, h) + length(fromExit, h)) break;
+            List<Node> pathToBestTile= fromCurrent.pathTo(h);
+            pathToBestTile.remove(0);
+            for (Node w : pathToBestTile) {
+                s.moveTo(w);
+            }
+        }
 
-    		
-    			if( curPoints > maxPoints && !scramVisited(n)) {
-        			ScramVisited.add(n);
-    				maxPoints = curPoints;
-    				highestNode = n;
-    			}
-    		}
-    		if ( highestNode != null) { 
-    			List<Node> pathToBestTile = A7.dijkstra(s.currentNode(), highestNode);
-    			List<Node> pathFromBestTileToExit = A7.dijkstra(highestNode, s.exit());
-    			if(stepsLeft > (A7.sumOfPath(pathToBestTile) + A7.sumOfPath(pathFromBestTileToExit))) {
-    				pathToBestTile.remove(0);
-    				for ( Node w : pathToBestTile) { 
-    					s.moveTo(w);
-    		
-    				}
-    			}
-    			else { 
-    				break;
-    			} 
-    			
-    			
-    		} else {
-    			break;
-    		}
-        	
-    	}
-    	pathToExit = A7.dijkstra(s.currentNode(), s.exit());
-    	pathToExit.remove(0);
-    	
-    	
-    	for ( Node n: pathToExit) { 
-    		s.moveTo(n);
-    		if( n.equals(s.exit())) { 
-    			return;
-    		}
-    	} 
-    	
-    }
-    
-    public void scramA(ScramState s) { 
-    	PriorityQueue<Node> closedList = new PriorityQueue<>();
-    	PriorityQueue<Node> openList = new PriorityQueue<>();
-    	Node start = s.currentNode();
-    	for(Node n: s.allNodes()) { 
-    		closedList.add(n);
-    	}
-    	
-    	
-    	
+        List<Node> pathToExit= A7.dijkstra(s.currentNode(), s.exit());
+        pathToExit.remove(0);
+        for (Node n : pathToExit) {
+            s.moveTo(n);
+        }
     }
 
-    
-    public void scramVersion2(ScramState s) { 
-
-    	int stepsLeft = s.stepsToGo();
-		List<Node> pathToExit = A7.dijkstra(s.currentNode(), s.exit());
-//		pathToExit.remove(0);
-    	int currentNodeToExitSteps = A7.sumOfPath(pathToExit); 
-    	
-    	System.out.println("Started with " + stepsLeft + " steps.");
-    	
-    	
-    	while(stepsLeft >= currentNodeToExitSteps ) { 
-    		stepsLeft = s.stepsToGo();
-    		double maxPoints = 0;
-    		Node highestNode = null;
-    		for( Node n: s.allNodes()) { 
-    			if(n.getTile().type().name().equals("RING")) { 
-    				System.out.println("Is a ring");
-
-    				break;
-    			}
-    			int tileValue = n.getTile().coins();
-    			double curPoints = Math.pow(tileValue, 10) / ((double) (Math.pow(A7.sumOfPath(A7.dijkstra(s.currentNode(), n)), 3) * A7.sumOfPath(A7.dijkstra(n, s.exit()))));
-    			if( curPoints > maxPoints && !scramVisited(n)) {
-        			//System.out.println("Made it here");
-        			ScramVisited.add(n);
-    				maxPoints = curPoints;
-    				highestNode = n;
-    			}
-    		}
-    		if ( highestNode != null) { 
-    			List<Node> pathToBestTile = A7.dijkstra(s.currentNode(), highestNode);
-    			
-    			List<Node> pathFromBestTileToExit = A7.dijkstra(highestNode, s.exit());
-    			if(stepsLeft > (A7.sumOfPath(pathToBestTile) + A7.sumOfPath(pathFromBestTileToExit))) {
-    				pathToBestTile.remove(0);
-    				// System.out.println("Steps left is: " + stepsLeft + ". We will be taking " + A7.sumOfPath(pathFromBestTileToExit) + " steps to the next highest tile. And then take " +A7.sumOfPath(pathToExit) + " steps to the exit." );
-    				for ( Node w : pathToBestTile) { 
-    					
-    					
-    					s.moveTo(w);
-    		
-    				}
-    			}
-    			else { 
-    				System.out.println("Steps left is: " + stepsLeft);
-    				System.out.println("Path to Exit: " + A7.sumOfPath(pathToExit));
-//    				System.out.println("Current tile is: " + s.currentNode() + " highest tile is: " + highestNode);
-    				System.out.println("Path to Best Tile to Exit " + A7.sumOfPath(pathFromBestTileToExit));
-    				System.out.println("Path to Best Tile: " + A7.sumOfPath(pathToBestTile));
-    				int sumOfSteps = A7.sumOfPath(pathFromBestTileToExit) +A7.sumOfPath(pathToBestTile);
-    				System.out.println(stepsLeft - sumOfSteps);
+    /** Return the length of the shortest path sp found to index v, <br>
+     * or 0 if there is none (like A7.sumOfPath of the empty path). */
+    private static int length(ShortestPaths sp, int v) {
+        int d= sp.distance(v);
+        return d == ShortestPaths.UNREACHED ? 0 : d;
+    }
 
-    				
-    				break;
-    			} 
-    			
-    			
-    		} else {
-    			break;
-    		}
-        	
-    	}
-    	System.out.println("Going home!");
-    	pathToExit = A7.dijkstra(s.currentNode(), s.exit());
-    	pathToExit.remove(0);
-    	
-    	
-    	for ( Node n: pathToExit) { 
-//    		System.out.println("predicted: " + A7.sumOfPath(pathToExit));
-//    		stepsLeft = s.stepsToGo();
-//    		System.out.println("steps left is: " + stepsLeft);
-//    		int edgeLen = n.edge(s.currentNode()).length;
-//    		System.out.println("edge weight is: " +  edgeLen);
-//    		System.out.println("next steps left should be: " + (stepsLeft - edgeLen));
-    		s.moveTo(n);
-    		
-    		if( n.equals(s.exit())) { 
-    			return;
-    		}
-    	}  		
+    /** Collect coins along the route an OrienteeringSolver plans within the steps <br>
+     * left, spending at most OrienteeringSolver.timeBudget() on planning, <br>
+     * and end at the exit. */
+    public void scramOrienteering(ScramState s) {
+        long deadline= System.nanoTime() + OrienteeringSolver.timeBudget();
+        OrienteeringSolver solver= new OrienteeringSolver(s.currentNode(), s.exit(),
+            s.allNodes(), s::coinsAt, s.stepsToGo());
+        for (Node n : solver.solve(deadline)) {
+            s.moveTo(n);
+        }
     }
-    
-    
+
     /**
      * Helper function for scram stage. 
      * @param node
      * @return true if the node has been visited
      * 
      */
-    public boolean scramVisited(Node node) { 
+    public boolean scramVisited(Node node) {
+        return scramVisitedSet != null && scramVisitedSet.contains(node);
+    }
 
-    	for (Node n: ScramVisited) { 
-    		if(n.equals(node)) return true; 
-    	}
-    	
-    	return false;
+    /** Add node to the nodes visited in the scram stage. */
+    private void markScramVisited(Node node) {
+        if (scramVisitedSet == null) scramVisitedSet= NodeBitSet.forSewersOf(node);
+        scramVisitedSet.add(node);
     }
 
 }
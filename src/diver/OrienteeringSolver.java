@@ -0,0 +1,320 @@
+package diver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import graph.CsrGraph;
+import graph.GameState;
+import graph.Node;
+import graph.ShortestPaths;
+
+/** An instance plans a scram: a route from a start node to an exit node, no longer<br>
+ * than a step budget, that collects as many coins as possible. This is the<br>
+ * orienteering problem, which is NP-hard, so the solver is a heuristic: it always<br>
+ * holds a feasible route, and improves it for a bounded number of steps.
+ *
+ * The route visits stops: the start (stop 0), the exit (stop 1) and the nodes with<br>
+ * coins (stops 2, 3, ...). Between two stops it follows a shortest path, so it needs<br>
+ * only the distances between stops, which are computed up front by one search from<br>
+ * each stop. The route found first is built greedily by cheapest insertion. It is<br>
+ * then improved by local search ---2-opt and or-opt to shorten it, insertion to spend<br>
+ * the steps saved on more coins--- and then by removing a few random stops and<br>
+ * repairing the route, keeping the best route found.
+ *
+ * When to stop is decided by counting perturbations, not by the clock, and the<br>
+ * randomness is seeded, so the route depends only on the sewer system and the<br>
+ * budget, not on the speed or load of the machine. A game, or a tournament on any<br>
+ * number of threads, plays the same every time.
+ *
+ * A route is counted as collecting only the coins of its stops. Coins on the way <br>
+ * between stops are picked up too, so the diver collects at least as many. */
+public final class OrienteeringSolver {
+
+	/** Fraction of GameState.SCRAM_TIMEOUT after which the solver stops even if it has <br>
+	 * perturbations left. This is only a safety cap: the perturbations take far less. */
+	private static final double TIME_FRACTION= 0.5;
+
+	/** Number of perturbations in a row without a better route after which the <br>
+	 * solver stops */
+	private static final int MAX_STALE= 500;
+
+	/** Maximum number of perturbations the solver tries. Of 100 games, none needed <br>
+	 * more than about 1,300 to reach MAX_STALE. */
+	private static final int MAX_PERTURBATIONS= 5000;
+
+	/** Maximum number of stops removed by a perturbation */
+	private static final int MAX_REMOVED= 4;
+
+	/** The stops: stop[0] is the start, stop[1] is the exit, and the others have coins. */
+	private final Node[] stop;
+
+	/** coins[k] is the number of coins on stop k (0 for the start and the exit). */
+	private final int[] coins;
+
+	/** dist[j][k] is the length of a shortest path from stop j to stop k. */
+	private final int[][] dist;
+
+	/** search[k] is the result of a search from stop k over the whole sewer system. */
+	private final ShortestPaths[] search;
+
+	/** The maximum length of a route */
+	private final int budget;
+
+	/** Source of randomness for the perturbations */
+	private final Random rand= new Random(0);
+
+	/** The best route found so far: stop numbers, from 0 (start) to 1 (exit) */
+	private int[] best;
+	private int bestLength, bestCoins;
+
+	/** Constructor: a solver for routes from start to exit of length at most budget <br>
+	 * over the sewer system whose nodes are nodes, where coinsAt gives the coins on <br>
+	 * a node (e.g. ScramState::coinsAt). <br>
+	 * Precondition: there is a path from start to exit of length at most budget. */
+	public OrienteeringSolver(Node start, Node exit, Collection<Node> nodes,
+		ToIntFunction<Node> coinsAt, int budget) {
+		this.budget= budget;
+		ShortestPaths fromStart= ShortestPaths.searchAll(start);
+		CsrGraph g= fromStart.graph();
+		List<Node> stops= new ArrayList<>();
+		stops.add(start);
+		stops.add(exit);
+		for (Node n : nodes) {
+			if (coinsAt.applyAsInt(n) > 0 && !n.equals(start) && !n.equals(exit) &&
+				fromStart.distance(g.index(n)) != ShortestPaths.UNREACHED) {
+				stops.add(n);
+			}
+		}
+		int k= stops.size();
+		stop= stops.toArray(new Node[k]);
+		coins= new int[k];
+		search= new ShortestPaths[k];
+		dist= new int[k][k];
+		search[0]= fromStart;
+		for (int i= 0; i < k; i++ ) {
+			coins[i]= i < 2 ? 0 : coinsAt.applyAsInt(stop[i]);
+			if (i > 0) search[i]= ShortestPaths.searchAll(stop[i]);
+		}
+		int[] index= new int[k];
+		for (int i= 0; i < k; i++ ) {
+			index[i]= g.index(stop[i]);
+		}
+		for (int i= 0; i < k; i++ ) {
+			for (int j= 0; j < k; j++ ) {
+				dist[i][j]= search[i].distance(index[j]);
+			}
+		}
+		best= new int[] { 0, 1 };
+		bestLength= dist[0][1];
+		bestCoins= 0;
+	}
+
+	/** Return the most time a scram should allow solve(): a fixed fraction of <br>
+	 * GameState.SCRAM_TIMEOUT, in nanoseconds. */
+	public static long timeBudget() {
+		return (long) (TimeUnit.SECONDS.toNanos(GameState.SCRAM_TIMEOUT) * TIME_FRACTION);
+	}
+
+	/** Improve the route until MAX_STALE perturbations in a row find no better route <br>
+	 * or MAX_PERTURBATIONS have been tried, and return the nodes to move to, in order, <br>
+	 * to follow the best route found: the start is not included and the exit is last. <br>
+	 * Stop early if System.nanoTime() reaches deadline. That is a safety cap for a <br>
+	 * machine too slow to finish; then the route depends on timing. */
+	public List<Node> solve(long deadline) {
+		int[] route= improve(best.clone());
+		keepIfBetter(route);
+		int stale= 0;
+		for (int k= 0; k < MAX_PERTURBATIONS && stale < MAX_STALE; k++ ) {
+			if (System.nanoTime() - deadline >= 0) break;
+			route= improve(perturb(best.clone()));
+			stale= keepIfBetter(route) ? 0 : stale + 1;
+		}
+		return walk(best);
+	}
+
+	/** Return the number of coins on the stops of the best route found so far. */
+	public int plannedCoins() {
+		return bestCoins;
+	}
+
+	/** If route collects more coins than the best route, or as many in fewer steps, <br>
+	 * make it the best route and return true; otherwise return false. */
+	private boolean keepIfBetter(int[] route) {
+		int c= coins(route), len= length(route);
+		if (c > bestCoins || c == bestCoins && len < bestLength) {
+			best= route;
+			bestCoins= c;
+			bestLength= len;
+			return true;
+		}
+		return false;
+	}
+
+	/** Return route improved by local search: shortened with 2-opt and or-opt and <br>
+	 * extended by insertion, until neither helps. It may be a new array. */
+	private int[] improve(int[] route) {
+		while (true) {
+			while (twoOpt(route) || orOpt(route)) {}
+			int[] longer= insertAll(route);
+			if (longer.length == route.length) return route;
+			route= longer;
+		}
+	}
+
+	/** Apply the first 2-opt move that shortens route: reverse route[i..j]. <br>
+	 * Return true iff there was one. */
+	private boolean twoOpt(int[] route) {
+		int n= route.length;
+		for (int i= 1; i < n - 2; i++ ) {
+			for (int j= i + 1; j < n - 1; j++ ) {
+				int a= route[i - 1], b= route[i], c= route[j], d= route[j + 1];
+				if (dist[a][c] + dist[b][d] < dist[a][b] + dist[c][d]) {
+					for (int p= i, q= j; p < q; p++ , q-- ) {
+						int t= route[p];
+						route[p]= route[q];
+						route[q]= t;
+					}
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/** Apply the first or-opt move that shortens route: move a segment of 1 to 3 <br>
+	 * consecutive stops elsewhere, keeping its order. Return true iff there was one. */
+	private boolean orOpt(int[] route) {
+		int n= route.length;
+		for (int len= 1; len <= 3; len++ ) {
+			for (int i= 1; i + len < n; i++ ) {
+				// The segment is route[i..e]; p and q are its neighbors.
+				int e= i + len - 1;
+				int p= route[i - 1], q= route[e + 1];
+				int removed= dist[p][route[i]] + dist[route[e]][q] - dist[p][q];
+				for (int j= 0; j < n - 1; j++ ) {
+					if (j >= i - 1 && j <= e) continue;
+					// Insert the segment between route[j] and route[j + 1].
+					int a= route[j], b= route[j + 1];
+					int added= dist[a][route[i]] + dist[route[e]][b] - dist[a][b];
+					if (added < removed) {
+						moveSegment(route, i, e, j);
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/** Move route[i..e] to between route[j] and route[j + 1]. <br>
+	 * Precondition: j < i - 1 or j > e. */
+	private static void moveSegment(int[] route, int i, int e, int j) {
+		int[] seg= Arrays.copyOfRange(route, i, e + 1);
+		int len= seg.length;
+		if (j > e) {
+			System.arraycopy(route, e + 1, route, i, j - e);
+			System.arraycopy(seg, 0, route, j - len + 1, len);
+		} else {
+			System.arraycopy(route, j + 1, route, j + 1 + len, i - j - 1);
+			System.arraycopy(seg, 0, route, j + 1, len);
+		}
+	}
+
+	/** Return route with stops not on it inserted one at a time, each time the one <br>
+	 * with the most coins per added step that keeps the route within budget, at the <br>
+	 * position where it adds fewest steps. Return route itself if none fits. */
+	private int[] insertAll(int[] route) {
+		boolean[] on= new boolean[stop.length];
+		for (int s : route) {
+			on[s]= true;
+		}
+		int length= length(route);
+		while (true) {
+			int bestStop= -1, bestPos= -1, bestAdded= 0;
+			double bestRatio= -1;
+			for (int s= 2; s < stop.length; s++ ) {
+				if (on[s]) continue;
+				int pos= -1, added= Integer.MAX_VALUE;
+				for (int j= 0; j < route.length - 1; j++ ) {
+					int a= route[j], b= route[j + 1];
+					int d= dist[a][s] + dist[s][b] - dist[a][b];
+					if (d < added) {
+						added= d;
+						pos= j;
+					}
+				}
+				if (length + added > budget) continue;
+				double ratio= coins[s] / (added + 1.0);
+				if (ratio > bestRatio) {
+					bestRatio= ratio;
+					bestStop= s;
+					bestPos= pos;
+					bestAdded= added;
+				}
+			}
+			if (bestStop < 0) return route;
+			int[] longer= new int[route.length + 1];
+			System.arraycopy(route, 0, longer, 0, bestPos + 1);
+			longer[bestPos + 1]= bestStop;
+			System.arraycopy(route, bestPos + 1, longer, bestPos + 2, route.length - bestPos - 1);
+			route= longer;
+			on[bestStop]= true;
+			length= length + bestAdded;
+		}
+	}
+
+	/** Return route without 1 to MAX_REMOVED of its coin stops, chosen at random. */
+	private int[] perturb(int[] route) {
+		int inner= route.length - 2;
+		if (inner == 0) return route;
+		int remove= 1 + rand.nextInt(Math.min(MAX_REMOVED, inner));
+		boolean[] drop= new boolean[route.length];
+		for (int r= 0; r < remove; r++ ) {
+			drop[1 + rand.nextInt(inner)]= true;
+		}
+		int[] shorter= new int[route.length];
+		int n= 0;
+		for (int i= 0; i < route.length; i++ ) {
+			if (!drop[i]) {
+				shorter[n]= route[i];
+				n++ ;
+			}
+		}
+		return Arrays.copyOf(shorter, n);
+	}
+
+	/** Return the number of steps of route. */
+	private int length(int[] route) {
+		int len= 0;
+		for (int i= 0; i + 1 < route.length; i++ ) {
+			len= len + dist[route[i]][route[i + 1]];
+		}
+		return len;
+	}
+
+	/** Return the number of coins on the stops of route. */
+	private int coins(int[] route) {
+		int c= 0;
+		for (int s : route) {
+			c= c + coins[s];
+		}
+		return c;
+	}
+
+	/** Return the nodes to move to, in order, to follow route from its start. */
+	private List<Node> walk(int[] route) {
+		List<Node> walk= new ArrayList<>();
+		for (int i= 0; i + 1 < route.length; i++ ) {
+			// search[a] is a tree rooted at a, so its path to b goes from a to b.
+			ShortestPaths from= search[route[i]];
+			List<Node> leg= from.pathTo(from.graph().index(stop[route[i + 1]]));
+			walk.addAll(leg.subList(1, leg.size()));
+		}
+		return walk;
+	}
+}
@@ -0,0 +1,147 @@
+package diver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+/** An instance is a pairing min-heap of distinct values of type T with priorities of<br>
+ * type double.
+ *
+ * The heap is a tree in which every node's priority is at most its children's.<br>
+ * insert and lowering a priority take constant time: the new (or cut-off) subtree is<br>
+ * simply melded with the root. poll takes amortised logarithmic time: the root's<br>
+ * children are melded in pairs from left to right, then the results from right to left.<br>
+ * Raising a priority removes the node's subtree and inserts it again. */
+public final class PairingHeap<T> implements PriorityHeap<T> {
+
+	/** A node of the tree. Children form a doubly-linked list through sibling and prev. */
+	private static final class PNode<T> {
+		private final T value;
+		private double priority;
+		/** The leftmost child, or null */
+		private PNode<T> child;
+		/** The next sibling to the right, or null */
+		private PNode<T> sibling;
+		/** The parent if this is the leftmost child, otherwise the previous sibling <br>
+		 * (null for the root) */
+		private PNode<T> prev;
+
+		private PNode(T v, double p) {
+			value= v;
+			priority= p;
+		}
+	}
+
+	/** The root of the tree (null if the heap is empty) */
+	private PNode<T> root;
+
+	/** Maps each value in the heap to its node. */
+	private final HashMap<T, PNode<T>> map= new HashMap<>();
+
+	/** Scratch list used by mergePairs, kept to avoid allocating it on every poll */
+	private final ArrayList<PNode<T>> pairs= new ArrayList<>();
+
+	@Override
+	public void insert(T v, double p) {
+		if (map.containsKey(v)) throw new IllegalArgumentException("v already in the heap");
+		PNode<T> n= new PNode<>(v, p);
+		map.put(v, n);
+		root= meld(root, n);
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public T peek() {
+		if (root == null) throw new NoSuchElementException("heap is empty");
+		return root.value;
+	}
+
+	@Override
+	public T poll() {
+		if (root == null) throw new NoSuchElementException("heap is empty");
+		PNode<T> r= root;
+		map.remove(r.value);
+		root= mergePairs(r.child);
+		r.child= null;
+		return r.value;
+	}
+
+	@Override
+	public void changePriority(T v, double p) {
+		PNode<T> n= map.get(v);
+		if (n == null) throw new IllegalArgumentException("v is not in the heap");
+		if (p <= n.priority) {
+			n.priority= p;
+			if (n != root) {
+				cut(n);
+				root= meld(root, n);
+			}
+			return;
+		}
+		// Raising a priority may break the order below n: take n out, put its
+		// children back, and insert n again on its own.
+		if (n == root) {
+			root= mergePairs(n.child);
+		} else {
+			cut(n);
+			root= meld(root, mergePairs(n.child));
+		}
+		n.child= null;
+		n.priority= p;
+		root= meld(root, n);
+	}
+
+	/** Detach the subtree rooted at n from its parent. Precondition: n is not the root. */
+	private void cut(PNode<T> n) {
+		if (n.prev.child == n) {
+			n.prev.child= n.sibling;
+		} else {
+			n.prev.sibling= n.sibling;
+		}
+		if (n.sibling != null) n.sibling.prev= n.prev;
+		n.sibling= null;
+		n.prev= null;
+	}
+
+	/** Meld the trees rooted at a and b (either may be null) and return the new root. <br>
+	 * Precondition: a and b have no siblings. */
+	private PNode<T> meld(PNode<T> a, PNode<T> b) {
+		if (a == null) return b;
+		if (b == null) return a;
+		if (b.priority < a.priority) {
+			PNode<T> t= a;
+			a= b;
+			b= t;
+		}
+		b.prev= a;
+		b.sibling= a.child;
+		if (a.child != null) a.child.prev= b;
+		a.child= b;
+		a.prev= null;
+		return a;
+	}
+
+	/** Meld the list of siblings starting at first into one tree and return its root <br>
+	 * (null if first is null), using the two-pass pairing strategy. */
+	private PNode<T> mergePairs(PNode<T> first) {
+		if (first == null) return null;
+		for (PNode<T> n= first; n != null;) {
+			PNode<T> a= n;
+			PNode<T> b= a.sibling;
+			n= b == null ? null : b.sibling;
+			a.sibling= a.prev= null;
+			if (b != null) b.sibling= b.prev= null;
+			pairs.add(meld(a, b));
+		}
+		PNode<T> r= pairs.get(pairs.size() - 1);
+		for (int i= pairs.size() - 2; i >= 0; i-- ) {
+			r= meld(pairs.get(i), r);
+		}
+		pairs.clear();
+		return r;
+	}
+}
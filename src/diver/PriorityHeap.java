@@ -0,0 +1,29 @@
+package diver;
+
+/** A PriorityHeap is a priority queue of distinct values of type T with priorities<br>
+ * of type double, which can change the priority of a value already in it.
+ *
+ * Heap is the binary-heap implementation. The others (DaryHeap, PairingHeap and<br>
+ * RadixHeap) are min-heaps tuned for shortest-path searches; HeapBenchmark compares<br>
+ * them on Dijkstra workloads over real sewer systems. */
+public interface PriorityHeap<T> {
+
+	/** Insert v with priority p. <br>
+	 * Throw an IllegalArgumentException if v is already in the heap. */
+	void insert(T v, double p);
+
+	/** Return the number of values in the heap. */
+	int size();
+
+	/** Return the value at the top of the heap without removing it. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	T peek();
+
+	/** Remove and return the value at the top of the heap. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	T poll();
+
+	/** Change the priority of value v to p. <br>
+	 * Throw an IllegalArgumentException if v is not in the heap. */
+	void changePriority(T v, double p);
+}
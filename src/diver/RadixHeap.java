@@ -0,0 +1,141 @@
+package diver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+/** An instance is a radix min-heap of distinct values of type T with non-negative<br>
+ * integer priorities that are monotone: no priority may be smaller than the priority<br>
+ * of the last value polled. Dijkstra's algorithm over integer edge weights satisfies<br>
+ * this, and then every operation takes amortised O(log C) time, where C is the largest<br>
+ * priority, independent of the number of values.
+ *
+ * Bucket 0 holds entries whose priority equals last, the priority of the last value<br>
+ * polled. Bucket i > 0 holds entries whose priority differs from last first in bit<br>
+ * i-1. When bucket 0 is empty, the first non-empty bucket is emptied into lower ones<br>
+ * around its minimum, which becomes the new last.
+ *
+ * changePriority adds a new entry and leaves the old one in its bucket; an entry is<br>
+ * live only while it is the value's current entry in map, and dead ones are dropped<br>
+ * when they are met. */
+public final class RadixHeap<T> implements PriorityHeap<T> {
+
+	/** An entry: a value with a priority */
+	private static final class Entry<T> {
+		private final T value;
+		private final long priority;
+
+		private Entry(T v, long p) {
+			value= v;
+			priority= p;
+		}
+	}
+
+	/** The buckets. There is one per bit of a long, plus bucket 0. */
+	private final ArrayList<ArrayList<Entry<T>>> buckets= new ArrayList<>();
+
+	/** Maps each value in the heap to its live entry. */
+	private final HashMap<T, Entry<T>> map= new HashMap<>();
+
+	/** The priority of the last value polled (0 at first) */
+	private long last;
+
+	/** Constructor: an empty heap. */
+	public RadixHeap() {
+		for (int i= 0; i <= Long.SIZE; i++ ) {
+			buckets.add(new ArrayList<>());
+		}
+	}
+
+	@Override
+	public void insert(T v, double p) {
+		if (map.containsKey(v)) throw new IllegalArgumentException("v already in the heap");
+		push(new Entry<>(v, check(p)));
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public T peek() {
+		return top().value;
+	}
+
+	@Override
+	public T poll() {
+		Entry<T> e= top();
+		ArrayList<Entry<T>> b0= buckets.get(0);
+		b0.remove(b0.size() - 1);
+		map.remove(e.value);
+		return e.value;
+	}
+
+	@Override
+	public void changePriority(T v, double p) {
+		Entry<T> old= map.get(v);
+		if (old == null) throw new IllegalArgumentException("v is not in the heap");
+		long q= check(p);
+		if (q != old.priority) push(new Entry<>(v, q));
+	}
+
+	/** Return p as a long. Throw an IllegalArgumentException if it is not an integer <br>
+	 * or is smaller than the priority of the last value polled. */
+	private long check(double p) {
+		long q= (long) p;
+		if (q != p || q < last) {
+			throw new IllegalArgumentException("priorities must be integers >= " + last);
+		}
+		return q;
+	}
+
+	/** Make e the live entry of its value and put it in its bucket. */
+	private void push(Entry<T> e) {
+		map.put(e.value, e);
+		buckets.get(bucket(e.priority)).add(e);
+	}
+
+	/** Return the bucket for priority p: 0 if p = last, else 1 + the highest bit <br>
+	 * in which p and last differ. */
+	private int bucket(long p) {
+		return Long.SIZE - Long.numberOfLeadingZeros(p ^ last);
+	}
+
+	/** Return true iff e is the live entry of its value. */
+	private boolean isLive(Entry<T> e) {
+		return map.get(e.value) == e;
+	}
+
+	/** Return a live entry with the smallest priority, leaving it at the end of bucket 0. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	private Entry<T> top() {
+		if (map.isEmpty()) throw new NoSuchElementException("heap is empty");
+		ArrayList<Entry<T>> b0= buckets.get(0);
+		while (true) {
+			while (!b0.isEmpty()) {
+				Entry<T> e= b0.get(b0.size() - 1);
+				if (isLive(e)) return e;
+				b0.remove(b0.size() - 1);
+			}
+			// Bucket 0 is empty: redistribute the first bucket with a live entry.
+			int i= 1;
+			long min= Long.MAX_VALUE;
+			for (;; i++ ) {
+				ArrayList<Entry<T>> b= buckets.get(i);
+				b.removeIf((e) -> !isLive(e));
+				if (b.isEmpty()) continue;
+				for (Entry<T> e : b) {
+					min= Math.min(min, e.priority);
+				}
+				break;
+			}
+			ArrayList<Entry<T>> b= buckets.get(i);
+			last= min;
+			for (Entry<T> e : b) {
+				buckets.get(bucket(e.priority)).add(e);
+			}
+			b.clear();
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package graph;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToLongFunction;
+
+import diver.A7;
+import diver.Heap;
+import diver.McDiver;
+
+/** A benchmark suite for the hot spots of the game: sewer generation, shortest paths,<br>
+ * serialization and complete headless McDiver games. It is a plain main program,<br>
+ * run for example as
+ *
+ * java graph.Benchmarks -sizes 25x40,60x60 -seeds 1,2,3 -warmup 1000 -time 2000
+ *
+ * For each grid size (rows x columns) and each seed, a fixture is built: the seek- and<br>
+ * scram- sewer systems GameState would build from that seed at that size, and their<br>
+ * binary forms. Each benchmark is then run on each fixture repeatedly, untimed for<br>
+ * the warmup period so that the JIT has compiled it and then timed for the measurement<br>
+ * period. For each benchmark and size it reports the mean time per operation and, from<br>
+ * the JVM's management beans, the bytes allocated per operation and the number and<br>
+ * total time of the garbage collections during measurement.
+ *
+ * Compare the output of two versions on the same machine, sizes and seeds to find<br>
+ * performance regressions. */
+public final class Benchmarks {
+
+	/** Default grid sizes, seeds, and warmup and measurement times in ms */
+	private static final String SIZES= "12x8,25x40";
+	private static final String SEEDS= "1,2,3";
+	private static final int WARMUP_MS= 500, TIME_MS= 1000;
+
+	/** The results of the benchmarks, kept so that the JIT cannot drop the work */
+	private static volatile long sink;
+
+	private Benchmarks() {}
+
+	/** The data a benchmark runs on, built from a grid size and a seed */
+	private static final class Fixture {
+		private final int rows, cols;
+		private final long seed;
+		private final Sewers seek, scram;
+		/** The node of scram where the diver starts: the position of seek's ring */
+		private final Node scramStart;
+
+		private Fixture(int r, int c, long s) {
+			rows= r;
+			cols= c;
+			seed= s;
+			Random rand= new Random(s);
+			seek= Sewers.digExploreSewer(r, c, rand);
+			Tile ringTile= seek.ring().getTile();
+			scram= Sewers.digGetOutSewer(r, c, ringTile.row(), ringTile.column(), rand);
+			scramStart= scram.nodeAt(ringTile.row(), ringTile.column());
+		}
+	}
+
+	/** The benchmarks, by name, in the order they are run */
+	private static final Map<String, ToLongFunction<Fixture>> BENCHMARKS= new LinkedHashMap<>();
+	static {
+		BENCHMARKS.put("digExploreSewer", (f) -> Sewers
+			.digExploreSewer(f.rows, f.cols, new Random(f.seed)).numOpenTiles());
+		BENCHMARKS.put("digGetOutSewer", (f) -> {
+			Tile t= f.seek.ring().getTile();
+			return Sewers.digGetOutSewer(f.rows, f.cols, t.row(), t.column(),
+				new Random(f.seed)).numOpenTiles();
+		});
+		// The first call on a sewer system searches the whole graph; later ones look up
+		// the cached distances. The cold search is timed on its own.
+		BENCHMARKS.put("minPathLengthToRing", (f) -> f.scram.minPathLengthToRing(f.scramStart));
+		BENCHMARKS.put("ringSearch (cold)", (f) -> {
+			CsrGraph g= f.scram.csr();
+			return ShortestPaths.searchAll(g, g.index(f.scram.ring())).distance(g.index(f.scramStart));
+		});
+		// Explore sewers have only edges of length 1, so their ring distances come from a
+		// bit-parallel breadth-first search. Both searches are timed cold, bitboard included.
+		BENCHMARKS.put("seek ringSearch (Dial)", (f) -> {
+			CsrGraph g= f.seek.csr();
+			return ShortestPaths.searchAll(g, g.index(f.seek.ring())).distance(g.index(f.seek.entrance()));
+		});
+		BENCHMARKS.put("seek ringSearch (bits)", (f) -> {
+			CsrGraph g= f.seek.csr();
+			return GridBitboard.of(g).distances(g.index(f.seek.ring()))[g.index(f.seek.entrance())];
+		});
+		BENCHMARKS.put("A7.dijkstra", (f) -> A7.dijkstra(f.scramStart, f.scram.ring()).size());
+		BENCHMARKS.put("A7.dijkstra (Heap)", (f) -> A7
+			.dijkstra(f.scramStart, f.scram.ring(), new Heap<>(true)).size());
+		BENCHMARKS.put("serialize+deserialize", (f) -> Sewers
+			.deserialize(f.scram.serialize()).numOpenTiles());
+		BENCHMARKS.put("writeBinary+readBinary", (f) -> read(binary(f.scram)).numOpenTiles());
+		// A game takes coins only in its own array (GameState.coinsAt), so every game
+		// can share the fixture's sewer systems.
+		BENCHMARKS.put("McDiver seek+scram", (f) -> {
+			GameState g= new GameState(f.seek, f.scram, new McDiver());
+			g.run();
+			return g.getScore();
+		});
+	}
+
+	public static void main(String[] args) {
+		List<String> argList= Arrays.asList(args);
+		String[] sizes= arg(argList, "-sizes", SIZES).split(",");
+		String[] seeds= arg(argList, "-seeds", SEEDS).split(",");
+		long warmupNs= Long.parseLong(arg(argList, "-warmup", "" + WARMUP_MS)) * 1_000_000;
+		long timeNs= Long.parseLong(arg(argList, "-time", "" + TIME_MS)) * 1_000_000;
+		GameState.shouldPrint= false;
+
+		System.out.printf("%-26s %9s %14s %14s %6s %8s%n", "benchmark", "size", "us/op",
+			"bytes/op", "gcs", "gc ms");
+		for (String size : sizes) {
+			String[] rc= size.split("x");
+			List<Fixture> fixtures= new ArrayList<>();
+			for (String s : seeds) {
+				fixtures.add(new Fixture(Integer.parseInt(rc[0]), Integer.parseInt(rc[1]),
+					Long.parseLong(s)));
+			}
+			for (Map.Entry<String, ToLongFunction<Fixture>> e : BENCHMARKS.entrySet()) {
+				measure(fixtures, e.getValue(), warmupNs);
+				Result r= measure(fixtures, e.getValue(), timeNs);
+				System.out.printf("%-26s %9s %14.2f %14d %6d %8d%n", e.getKey(), size,
+					r.nanos / 1e3 / r.ops, r.bytes / r.ops, r.gcCount, r.gcMillis);
+			}
+		}
+	}
+
+	/** The result of measuring a benchmark */
+	private static final class Result {
+		private long ops, nanos, bytes, gcCount, gcMillis;
+	}
+
+	/** Run benchmark b on fixtures, round robin, for at least ns nanoseconds <br>
+	 * and return what was measured. */
+	private static Result measure(List<Fixture> fixtures, ToLongFunction<Fixture> b, long ns) {
+		Result r= new Result();
+		long bytes0= allocatedBytes();
+		long gcCount0= gcCount(), gcMillis0= gcMillis();
+		long start= System.nanoTime();
+		long sum= 0;
+		do {
+			for (Fixture f : fixtures) {
+				sum= sum + b.applyAsLong(f);
+			}
+			r.ops= r.ops + fixtures.size();
+			r.nanos= System.nanoTime() - start;
+		} while (r.nanos < ns);
+		r.bytes= allocatedBytes() - bytes0;
+		r.gcCount= gcCount() - gcCount0;
+		r.gcMillis= gcMillis() - gcMillis0;
+		sink= sink + sum;
+		return r;
+	}
+
+	/** Return the number of bytes allocated so far by the current thread, <br>
+	 * or 0 if the JVM cannot tell. */
+	private static long allocatedBytes() {
+		java.lang.management.ThreadMXBean t= ManagementFactory.getThreadMXBean();
+		if (t instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) t)
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return 0;
+	}
+
+	/** Return the total number of garbage collections so far. */
+	private static long gcCount() {
+		long n= 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			n= n + Math.max(0, gc.getCollectionCount());
+		}
+		return n;
+	}
+
+	/** Return the total time spent in garbage collections so far, in ms. */
+	private static long gcMillis() {
+		long n= 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			n= n + Math.max(0, gc.getCollectionTime());
+		}
+		return n;
+	}
+
+	/** Return s in the binary format of Sewers.writeBinary. */
+	private static byte[] binary(Sewers s) {
+		try {
+			ByteArrayOutputStream out= new ByteArrayOutputStream();
+			s.writeBinary(Channels.newChannel(out));
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Return the sewer system in b, which is in the binary format of Sewers.writeBinary. */
+	private static Sewers read(byte[] b) {
+		try {
+			return Sewers.readBinary(Channels.newChannel(new ByteArrayInputStream(b)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Return the string following flag in args, or def if flag is not there. */
+	private static String arg(List<String> args, String flag, String def) {
+		int k= args.indexOf(flag);
+		return k < 0 || k + 1 >= args.size() ? def : args.get(k + 1);
+	}
+}
@@ -0,0 +1,299 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/** The compact binary serialization format of a Sewers. Version 3 is laid out as:
+ *
+ * 1. Header: the 4 bytes "SEWR", a version byte, then rows, columns, <br>
+ * .. the index of the entrance and the index of the ring as 4-byte ints. <br>
+ * .. The index of (r, c) is r * columns + c.<br>
+ * 2. Wall mask: rows * columns bits, 8 per byte, least significant bit first. <br>
+ * .. A set bit means the tile is open.<br>
+ * 3. Coins: for each open tile in row-major order, its coins as an unsigned varint <br>
+ * .. (7 bits per byte, least significant group first).<br>
+ * 4. Edges: for each open tile in row-major order, a 4-bit weight for the edge to <br>
+ * .. its SOUTH neighbor, then for the edge to its EAST neighbor, but only for <br>
+ * .. neighbors that are open. Weight 0 means there is no edge. Two weights are <br>
+ * .. packed per byte, low nibble first.<br>
+ * 5. Order: the index of every open tile as an unsigned varint, in the order <br>
+ * .. graph() iterates them.
+ *
+ * The entrance tile has type ENTRANCE. The ring tile has type RING unless it is the<br>
+ * entrance. All other open tiles are FLOOR. Edges are added in the same order as<br>
+ * Sewers.createEdges adds them, so a generated sewer system survives a round trip<br>
+ * with its Node.exits() order intact.
+ *
+ * Scram code that iterates over all nodes depends on the order of graph(). The<br>
+ * reader makes graph() a LinkedHashSet of the nodes in the order the order section<br>
+ * gives, so graph() iterates in the same order after a round trip, whatever order<br>
+ * a HashSet would give. Version 1 is version 3 without the order section; it is<br>
+ * still read, with graph() in row-major order. Version 2 stored the order relative<br>
+ * to the iteration order of a HashSet, which can change with the JDK; it is not read. */
+/* package */ final class BinarySewerFormat {
+	/** The first four bytes of the format */
+	private static final int MAGIC= 'S' << 24 | 'E' << 16 | 'W' << 8 | 'R';
+
+	/** The current version of the format */
+	private static final byte VERSION= 3;
+
+	/** Size of the fixed header in bytes */
+	private static final int HEADER_SIZE= 4 + 1 + 4 * 4;
+
+	/** Largest weight that fits in a nibble */
+	private static final int MAX_WEIGHT= 0xF;
+
+	/** Constructor: no instances. */
+	private BinarySewerFormat() {}
+
+	/** Write sewers to channel ch in the binary format. <br>
+	 * Throw an IllegalArgumentException if sewers has an edge that cannot be <br>
+	 * represented (heavier than 15, or not between grid neighbors). */
+	static void write(Sewers sewers, WritableByteChannel ch) throws IOException {
+		int rows= sewers.rowCount();
+		int cols= sewers.columnCount();
+		int n= rows * cols;
+
+		// Worst case: 5 bytes per varint of coins and of the order, a byte of weights per tile.
+		ByteBuffer buf= ByteBuffer.allocate(HEADER_SIZE + (n + 7) / 8 + 11 * n);
+		buf.putInt(MAGIC).put(VERSION).putInt(rows).putInt(cols)
+			.putInt(index(sewers.entrance(), cols)).putInt(index(sewers.ring(), cols));
+
+		byte[] mask= new byte[(n + 7) / 8];
+		for (int v= 0; v < n; v++ ) {
+			if (isOpen(sewers, v / cols, v % cols)) mask[v >> 3]|= 1 << (v & 7);
+		}
+		buf.put(mask);
+
+		int edges= 0;
+		for (int v= 0; v < n; v++ ) {
+			int r= v / cols, c= v % cols;
+			if (!sewers.typeAt(r, c).isOpen()) continue;
+			putVarint(buf, sewers.coinsAt(v));
+			edges+= sewers.nodeAt(r, c).exits().size();
+		}
+
+		NibbleWriter weights= new NibbleWriter(buf);
+		int written= 0;
+		for (int v= 0; v < n; v++ ) {
+			int r= v / cols, c= v % cols;
+			if (!sewers.typeAt(r, c).isOpen()) continue;
+			Node node= sewers.nodeAt(r, c);
+			if (isOpen(sewers, r + 1, c)) written+= weights.put(weight(node, sewers.nodeAt(r + 1, c)));
+			if (isOpen(sewers, r, c + 1)) written+= weights.put(weight(node, sewers.nodeAt(r, c + 1)));
+		}
+		weights.flush();
+		if (2 * written != edges) {
+			throw new IllegalArgumentException("write: edges must join grid neighbors");
+		}
+
+		for (Node node : sewers.graph()) {
+			putVarint(buf, index(node, cols));
+		}
+
+		buf.flip();
+		while (buf.hasRemaining()) {
+			ch.write(buf);
+		}
+	}
+
+	/** Read a sewer system in the binary format from channel ch, up to its end. <br>
+	 * Throw an IOException if the data is not in a format this class can read. */
+	static Sewers read(ReadableByteChannel ch) throws IOException {
+		ByteBuffer buf= readFully(ch);
+		try {
+			if (buf.getInt() != MAGIC) throw new IOException("read: not a binary sewer file");
+			byte version= buf.get();
+			if (version != 1 && version != VERSION) {
+				if (version == 2) throw new IOException("read: version 2 is no longer read");
+				throw new IOException("read: unknown version " + version);
+			}
+			int rows= buf.getInt();
+			int cols= buf.getInt();
+			int entrance= buf.getInt();
+			int ring= buf.getInt();
+			int n= rows * cols;
+			if (rows <= 0 || cols <= 0 || entrance < 0 || entrance >= n || ring < 0 || ring >= n) {
+				throw new IOException("read: corrupt header");
+			}
+
+			byte[] mask= new byte[(n + 7) / 8];
+			buf.get(mask);
+
+			Node[][] tiles= new Node[rows][cols];
+			TileGrid grid= new TileGrid(rows, cols);
+			Set<Node> graph= new LinkedHashSet<>();
+			for (int v= 0; v < n; v++ ) {
+				int r= v / cols, c= v % cols;
+				if ((mask[v >> 3] & 1 << (v & 7)) == 0) {
+					tiles[r][c]= Node.wall(grid, r, c);
+				} else {
+					Tile.TileType type= v == entrance ? Tile.TileType.ENTRANCE :
+						v == ring ? Tile.TileType.RING : Tile.TileType.FLOOR;
+					tiles[r][c]= new Node(new Tile(grid, r, c, getVarint(buf), type), cols);
+					if (version == 1) graph.add(tiles[r][c]);
+				}
+			}
+
+			NibbleReader weights= new NibbleReader(buf);
+			for (int r= 0; r < rows; r++ ) {
+				for (int c= 0; c < cols; c++ ) {
+					Node node= tiles[r][c];
+					if (!node.getTile().type().isOpen()) continue;
+					if (r + 1 < rows) addEdge(node, tiles[r + 1][c], weights);
+					if (c + 1 < cols) addEdge(node, tiles[r][c + 1], weights);
+				}
+			}
+
+			if (version != 1) {
+				for (int k= openCount(mask); k > 0; k-- ) {
+					int v= getVarint(buf);
+					if (v >= n || (mask[v >> 3] & 1 << (v & 7)) == 0 ||
+						!graph.add(tiles[v / cols][v % cols])) {
+						throw new IOException("read: corrupt order");
+					}
+				}
+			}
+
+			Node ringNode= tiles[ring / cols][ring % cols];
+			if (!graph.contains(ringNode) || !graph.contains(tiles[entrance / cols][entrance % cols])) {
+				throw new IOException("read: the entrance and ring must be open tiles");
+			}
+			return new Sewers(graph, tiles, ringNode, grid);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("read: unexpected end of data", e);
+		}
+	}
+
+	/** Return the number of open tiles in wall mask mask. */
+	private static int openCount(byte[] mask) {
+		int count= 0;
+		for (byte b : mask) {
+			count+= Integer.bitCount(b & 0xFF);
+		}
+		return count;
+	}
+
+	/** If m is open, read the weight of the edge between node and m from weights <br>
+	 * and add that edge in both directions (unless the weight is 0). */
+	private static void addEdge(Node node, Node m, NibbleReader weights) {
+		if (!m.getTile().type().isOpen()) return;
+		int weight= weights.get();
+		if (weight == 0) return;
+		node.addEdge(new Edge(node, m, weight));
+		m.addEdge(new Edge(m, node, weight));
+	}
+
+	/** Return the weight of the edge from node to grid neighbor m, 0 if there is none. <br>
+	 * Throw an IllegalArgumentException if the weight does not fit in 4 bits. */
+	private static int weight(Node node, Node m) {
+		if (!node.neighbors().contains(m)) return 0;
+		int weight= node.edge(m).length();
+		if (weight <= 0 || weight > MAX_WEIGHT) {
+			throw new IllegalArgumentException("write: edge weights must be in 1.." + MAX_WEIGHT);
+		}
+		return weight;
+	}
+
+	/** Return true iff (r, c) is in the grid of sewers and is an open tile. */
+	private static boolean isOpen(Sewers sewers, int r, int c) {
+		return r < sewers.rowCount() && c < sewers.columnCount() &&
+			sewers.typeAt(r, c).isOpen();
+	}
+
+	/** Return the index of node n in a grid with cols columns. */
+	private static int index(Node n, int cols) {
+		return n.getTile().row() * cols + n.getTile().column();
+	}
+
+	/** Append value to buf as an unsigned varint. Precondition: value >= 0. */
+	private static void putVarint(ByteBuffer buf, int value) {
+		while ((value & ~0x7F) != 0) {
+			buf.put((byte) (value & 0x7F | 0x80));
+			value>>>= 7;
+		}
+		buf.put((byte) value);
+	}
+
+	/** Read an unsigned varint from buf and return it. */
+	private static int getVarint(ByteBuffer buf) throws IOException {
+		int value= 0;
+		for (int shift= 0; shift < 32; shift+= 7) {
+			byte b= buf.get();
+			value|= (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new IOException("read: varint is too long");
+	}
+
+	/** Read everything left in ch into a buffer and return it, ready to be read. */
+	private static ByteBuffer readFully(ReadableByteChannel ch) throws IOException {
+		ByteBuffer buf= ByteBuffer.allocate(4096);
+		while (ch.read(buf) >= 0) {
+			if (!buf.hasRemaining()) {
+				ByteBuffer bigger= ByteBuffer.allocate(2 * buf.capacity());
+				buf.flip();
+				bigger.put(buf);
+				buf= bigger;
+			}
+		}
+		buf.flip();
+		return buf;
+	}
+
+	/** An instance appends 4-bit values to a buffer, two per byte, low nibble first. */
+	private static final class NibbleWriter {
+		private final ByteBuffer buf;
+		/** The low nibble not yet written, or -1 if there is none */
+		private int pending= -1;
+
+		private NibbleWriter(ByteBuffer b) {
+			buf= b;
+		}
+
+		/** Append nibble x and return 1 if it is non-zero, 0 otherwise. */
+		private int put(int x) {
+			if (pending < 0) {
+				pending= x;
+			} else {
+				buf.put((byte) (pending | x << 4));
+				pending= -1;
+			}
+			return x == 0 ? 0 : 1;
+		}
+
+		/** Write the pending nibble, if any. */
+		private void flush() {
+			if (pending >= 0) buf.put((byte) pending);
+			pending= -1;
+		}
+	}
+
+	/** An instance reads 4-bit values from a buffer, two per byte, low nibble first. */
+	private static final class NibbleReader {
+		private final ByteBuffer buf;
+		/** The high nibble not yet returned, or -1 if there is none */
+		private int pending= -1;
+
+		private NibbleReader(ByteBuffer b) {
+			buf= b;
+		}
+
+		/** Return the next nibble. */
+		private int get() {
+			if (pending >= 0) {
+				int x= pending;
+				pending= -1;
+				return x;
+			}
+			int b= buf.get() & 0xFF;
+			pending= b >> 4;
+			return b & 0xF;
+		}
+	}
+}
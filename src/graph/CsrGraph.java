@@ -0,0 +1,147 @@
+package graph;
+
+/** An instance is a frozen, compressed-sparse-row (CSR) view of the graph of a Sewers.<br>
+ * Every grid cell (r, c) has the dense index r * columns + c, the same value that<br>
+ * Node(Tile, int) uses as its id. The edges leaving index v are the edge numbers<br>
+ * firstEdge(v)..endEdge(v)-1; edge e goes to index target(e) and has weight weight(e).<br>
+ * Wall cells are present but have no edges.
+ *
+ * Edges of a node appear in the same order as in Node.exits(), so algorithms<br>
+ * running over this view break ties exactly as those running over the Nodes. */
+public final class CsrGraph {
+	/** Number of rows and columns of the grid */
+	private final int rows, cols;
+
+	/** Node for each index, walls included */
+	private final Node[] nodes;
+
+	/** Edges leaving index v are offsets[v]..offsets[v+1]-1. Length is size()+1 */
+	private final int[] offsets;
+
+	/** targets[e] is the index at the other end of edge e */
+	private final int[] targets;
+
+	/** weights[e] is the length of edge e, as an unsigned byte. Lengths fit because <br>
+	 * generated ones are at most Sewers.MAX_EDGE_WEIGHT */
+	private final byte[] weights;
+
+	/** null if all lengths fit in weights. Otherwise (for graphs read from files <br>
+	 * with heavier edges), wideWeights[e] is the length of edge e and weights is unused. */
+	private final int[] wideWeights;
+
+	/** The largest edge weight, 0 if there are no edges */
+	private final int maxWeight;
+
+	/** Constructor: the CSR view of the grid tiles. <br>
+	 * Precondition: all elements of tiles are non-null and the edges are final. */
+	/* package */ CsrGraph(Node[][] tiles) {
+		rows= tiles.length;
+		cols= tiles[0].length;
+		int n= rows * cols;
+		nodes= new Node[n];
+		offsets= new int[n + 1];
+
+		int m= 0;
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				int v= i * cols + j;
+				nodes[v]= tiles[i][j];
+				offsets[v]= m;
+				m+= tiles[i][j].exits().size();
+			}
+		}
+		offsets[n]= m;
+
+		targets= new int[m];
+		int[] lengths= new int[m];
+		int max= 0;
+		for (int v= 0; v < n; v++ ) {
+			int e= offsets[v];
+			for (Edge edge : nodes[v].exits()) {
+				targets[e]= index(edge.getOther(nodes[v]));
+				lengths[e]= edge.length();
+				max= Math.max(max, edge.length());
+				e++ ;
+			}
+		}
+		maxWeight= max;
+
+		weights= new byte[max <= 0xFF ? m : 0];
+		for (int e= 0; e < weights.length; e++ ) {
+			weights[e]= (byte) lengths[e];
+		}
+		wideWeights= max <= 0xFF ? null : lengths;
+	}
+
+	/** Return the number of indices (rows * columns), walls included. */
+	public int size() {
+		return nodes.length;
+	}
+
+	/** Return the total number of directed edges. */
+	public int edgeCount() {
+		return targets.length;
+	}
+
+	/** Return the largest edge weight (0 if there are no edges). */
+	public int maxWeight() {
+		return maxWeight;
+	}
+
+	/** Return the number of rows of the grid. */
+	public int rowCount() {
+		return rows;
+	}
+
+	/** Return the number of columns of the grid. */
+	public int columnCount() {
+		return cols;
+	}
+
+	/** Return the index of cell (r, c). */
+	public int index(int r, int c) {
+		return r * cols + c;
+	}
+
+	/** Return the index of node n. <br>
+	 * Precondition: n is a node of the grid this view was built from. */
+	public int index(Node n) {
+		Tile t= n.getTile();
+		return t.row() * cols + t.column();
+	}
+
+	/** Return the node with index v. */
+	public Node node(int v) {
+		return nodes[v];
+	}
+
+	/** Return true iff the tile with index v is open. */
+	public boolean isOpen(int v) {
+		return nodes[v].getTile().type().isOpen();
+	}
+
+	/** Return the number of edges leaving index v. */
+	public int degree(int v) {
+		return offsets[v + 1] - offsets[v];
+	}
+
+	/** Return the number of the first edge leaving index v. */
+	public int firstEdge(int v) {
+		return offsets[v];
+	}
+
+	/** Return one more than the number of the last edge leaving index v. */
+	public int endEdge(int v) {
+		return offsets[v + 1];
+	}
+
+	/** Return the index at the other end of edge e. */
+	public int target(int e) {
+		return targets[e];
+	}
+
+	/** Return the length of edge e. */
+	public int weight(int e) {
+		return wideWeights == null ? weights[e] & 0xFF : wideWeights[e];
+	}
+}
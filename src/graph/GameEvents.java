@@ -0,0 +1,149 @@
+package graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** The JDK Flight Recorder events of the game and of the solvers.
+ *
+ * Each event is created, begun and ended around the operation it times, and its fields<br>
+ * are filled in and it is committed only if shouldCommit() says the recording wants it.<br>
+ * When no recording is running, shouldCommit() is false, the JIT removes the allocation<br>
+ * of the event, and the cost is a few instructions per operation.
+ *
+ * Record a tournament, for example, with
+ *
+ * java -XX:StartFlightRecording=filename=games.jfr,settings=profile graph.Tournament -n 1000
+ *
+ * and look for the events under "Sewers" in JDK Mission Control or with "jfr print".<br>
+ * The events of operations called very often (moves, neighbors, shortest paths and <br>
+ * ring distances) record no stack trace, to keep recordings small. */
+public final class GameEvents {
+
+	private GameEvents() {}
+
+	@Name("sewers.Generation")
+	@Label("Sewer Generation")
+	@Category({ "Sewers", "Generation" })
+	@Description("A sewer system was dug by digExploreSewer or digGetOutSewer")
+	public static final class Generation extends Event {
+		@Label("Kind")
+		@Description("explore or get-out")
+		public String kind;
+
+		@Label("Rows")
+		public int rows;
+
+		@Label("Columns")
+		public int columns;
+
+		@Label("Candidates")
+		@Description("Number of sewer systems generated before one was accepted")
+		public int candidates;
+
+		@Label("Speculative")
+		@Description("Whether candidates were generated in parallel")
+		public boolean speculative;
+	}
+
+	@Name("sewers.RingDistance")
+	@Label("Ring Distance")
+	@Category({ "Sewers", "Shortest Paths" })
+	@Description("A call of Sewers.minPathLengthToRing")
+	@StackTrace(false)
+	public static final class RingDistance extends Event {
+		@Label("Distance")
+		public int distance;
+
+		@Label("Cached")
+		@Description("Whether the distances to the ring were already known")
+		public boolean cached;
+	}
+
+	@Name("sewers.ShortestPath")
+	@Label("Shortest Path")
+	@Category({ "Sewers", "Shortest Paths" })
+	@Description("A call of A7.dijkstra")
+	@StackTrace(false)
+	public static final class ShortestPath extends Event {
+		@Label("Queue")
+		@Description("The priority queue used: buckets or the name of a heap class")
+		public String queue;
+
+		@Label("Nodes Settled")
+		public int settled;
+
+		@Label("Queue Operations")
+		@Description("Number of inserts, removals and priority changes on the queue")
+		public int queueOperations;
+
+		@Label("Path Nodes")
+		@Description("Number of nodes on the path found (0 if there is none)")
+		public int pathNodes;
+	}
+
+	@Name("sewers.Move")
+	@Label("Move")
+	@Category({ "Sewers", "Game" })
+	@Description("A call of GameState.moveTo")
+	@StackTrace(false)
+	public static final class Move extends Event {
+		@Label("Phase")
+		public String phase;
+
+		@Label("From")
+		public long from;
+
+		@Label("To")
+		public long to;
+
+		@Label("Length")
+		@Description("Length of the edge taken")
+		public int length;
+	}
+
+	@Name("sewers.Neighbors")
+	@Label("Neighbors")
+	@Category({ "Sewers", "Game" })
+	@Description("A call of GameState.neighbors")
+	@StackTrace(false)
+	public static final class Neighbors extends Event {
+		@Label("Location")
+		public long location;
+
+		@Label("Count")
+		public int count;
+	}
+
+	@Name("sewers.Phase")
+	@Label("Game Phase")
+	@Category({ "Sewers", "Game" })
+	@Description("A seek or scram phase of a game, from start to end")
+	public static final class Phase extends Event {
+		@Label("Phase")
+		public String phase;
+
+		@Label("Seed")
+		@Description("The seed of the game (-1 if it was not made from a seed)")
+		public long seed;
+
+		@Label("Succeeded")
+		public boolean succeeded;
+
+		@Label("Timed Out")
+		public boolean timedOut;
+
+		@Label("Erred")
+		public boolean erred;
+
+		@Label("Steps")
+		@Description("Steps taken in seek, or steps left at the end of scram")
+		public int steps;
+
+		@Label("Coins")
+		public int coins;
+	}
+}
@@ -1,7 +1,6 @@
 package graph;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
@@ -11,11 +10,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 import diver.McDiver;
 import gui.GUI;
@@ -29,6 +26,27 @@ public class GameState implements SeekState, ScramState {
     @SuppressWarnings("serial")
     private static class OutOfTimeException extends RuntimeException {}
 
+    /** Thrown by the SeekState and ScramState methods once the deadline of the <br>
+     * current phase has passed. */
+    @SuppressWarnings("serial")
+    private static class DeadlineExceededException extends RuntimeException {
+        private DeadlineExceededException() {
+            super("the time limit for this phase has passed");
+        }
+    }
+
+    /** Interrupts games whose deadline has passed (see interruptOnTimeout). <br>
+     * One daemon thread serves all games. */
+    private static final ScheduledThreadPoolExecutor ALARMS;
+    static {
+        ALARMS= new ScheduledThreadPoolExecutor(1, (r) -> {
+            Thread t= new Thread(r, "GameState deadline alarm");
+            t.setDaemon(true);
+            return t;
+        });
+        ALARMS.setRemoveOnCancelPolicy(true);
+    }
+
     static boolean shouldPrint= true;
 
     /** minimum and maximum number of rows */
@@ -59,6 +77,11 @@ public class GameState implements SeekState, ScramState {
 
     private Node position;
 
+    /** coins[v] is the coins left in this game on the tile of scramSewer with index v <br>
+     * (row * columns + column). The game takes coins here, not from the tiles, so <br>
+     * games may share scramSewer. */
+    private final int[] coins;
+
     /** steps taken so far, steps left, and coins collected */
     private int stepsTaken, stepsToGo, coinsCollected;
 
@@ -78,6 +101,20 @@ public class GameState implements SeekState, ScramState {
 
     private int minSeekSteps;
 
+    /** Whether this game prints its progress and errors. It is shouldPrint at the <br>
+     * time the game was created, so games created for a tournament can stay quiet <br>
+     * without changing the setting for anyone else. */
+    private boolean printing= shouldPrint;
+
+    /** The System.nanoTime() after which the SeekState and ScramState methods throw <br>
+     * a DeadlineExceededException. Long.MAX_VALUE when the phase has no time limit. */
+    private long deadline= Long.MAX_VALUE;
+
+    /** If true, a phase run with a time limit that is still running at its deadline <br>
+     * has its thread interrupted too. That stops a diver that is blocked or sleeping, <br>
+     * which never calls a method that checks the deadline. */
+    private boolean interruptOnTimeout= true;
+
     /** = "scram succeeded" */
     public boolean scramSucceeded() {
         return scramSucceeded;
@@ -88,9 +125,11 @@ public class GameState implements SeekState, ScramState {
      * and simply loads these sewers. */
     GameState(Path seekSewerPath, Path scramSewerPath, SewerDiver sd)
         throws IOException {
-        seekSewer= Sewers.deserialize(Files.readAllLines(seekSewerPath));
+        seekSewer= Sewers.readText(seekSewerPath);
         minSeekSteps= seekSewer.minPathLengthToRing(seekSewer.entrance());
-        scramSewer= Sewers.deserialize(Files.readAllLines(scramSewerPath));
+        seekSewer.neighborStatus(seekSewer.entrance()); // build the statuses before seek starts
+        scramSewer= Sewers.readText(scramSewerPath);
+        coins= scramSewer.coinsByIndex();
 
         sewerDiver= sd;
 
@@ -106,6 +145,28 @@ public class GameState implements SeekState, ScramState {
             position.getTile().column(), 0, this));
     }
 
+    /** Constructor: a new game instance without a GUI on the given seek- and <br>
+     * scram- sewers, with sewerDiver sd used to solve the game. The game changes <br>
+     * neither sewer system, so other games may use them too, even at the same time. <br>
+     * Precondition: scramSewer has an open tile where seekSewer has its ring. */
+    /* package */ GameState(Sewers seekSewer, Sewers scramSewer, SewerDiver sd) {
+        this.seekSewer= seekSewer;
+        minSeekSteps= seekSewer.minPathLengthToRing(seekSewer.entrance());
+        seekSewer.neighborStatus(seekSewer.entrance()); // build the statuses before seek starts
+        this.scramSewer= scramSewer;
+        coins= scramSewer.coinsByIndex();
+
+        position= seekSewer.entrance();
+        stepsTaken= 0;
+        stepsToGo= Integer.MAX_VALUE;
+        coinsCollected= 0;
+
+        sewerDiver= sd;
+        phase= Phase.SEEK;
+        seed= -1;
+        gui= Optional.empty();
+    }
+
     /** Constructor: a new random game instance with or without a GUI. */
     private GameState(boolean useGui, SewerDiver sd) {
         this(new Random().nextLong(), useGui, sd);
@@ -119,8 +180,10 @@ public class GameState implements SeekState, ScramState {
         int COLS= rand.nextInt(MAX_COLS - MIN_COLS + 1) + MIN_COLS;
         seekSewer= Sewers.digExploreSewer(ROWS, COLS, rand);
         minSeekSteps= seekSewer.minPathLengthToRing(seekSewer.entrance());
+        seekSewer.neighborStatus(seekSewer.entrance()); // build the statuses before seek starts
         Tile ringTile= seekSewer.ring().getTile();
         scramSewer= Sewers.digGetOutSewer(ROWS, COLS, ringTile.row(), ringTile.column(), rand);
+        coins= scramSewer.coinsByIndex();
 
         position= seekSewer.entrance();
         stepsTaken= 0;
@@ -188,32 +251,59 @@ public class GameState implements SeekState, ScramState {
         }
     }
 
-    @SuppressWarnings("deprecation")
-    /** Wrap a call seek() with the timeout functionality. */
+    /** Run seek() with a deadline SEEK_TIMEOUT seconds from now. */
     private void seekWithTimeLimit() {
-        FutureTask<Void> ft= new FutureTask<>(new Callable<Void>() {
-            @Override
-            public Void call() {
-                seekNoTimeout();
-                return null;
+        runWithDeadline(SEEK_TIMEOUT, this::seekNoTimeout);
+    }
+
+    /** Run phase on this thread with a deadline seconds seconds from now. <br>
+     * The diver is not stopped from outside: once the deadline has passed, each call <br>
+     * it makes on this GameState throws a DeadlineExceededException, which ends the <br>
+     * phase as timed out. So games with a time limit can share a thread pool. */
+    private void runWithDeadline(long seconds, Runnable phase) {
+        Thread thread= Thread.currentThread();
+        // alarmState[0]: 0 = armed, 1 = phase over, 2 = fired (thread interrupted)
+        int[] alarmState= new int[1];
+        deadline= System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        // The alarm goes off no earlier than the deadline, so a diver that is
+        // interrupted is always past it.
+        ScheduledFuture<?> alarm= !interruptOnTimeout ? null : ALARMS.schedule(() -> {
+            synchronized (alarmState) {
+                if (alarmState[0] == 0) {
+                    alarmState[0]= 2;
+                    thread.interrupt();
+                }
             }
-        });
-
-        Thread t= new Thread(ft);
-        t.start();
+        }, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
         try {
-            ft.get(SEEK_TIMEOUT, TimeUnit.SECONDS);
-        } catch (TimeoutException e) {
-            t.stop();
-            seekTimedOut= true;
-        } catch (InterruptedException | ExecutionException e) {
-            System.err.println("ERROR");
-            // Shouldn't happen
+            phase.run();
+        } finally {
+            deadline= Long.MAX_VALUE;
+            if (alarm != null) {
+                alarm.cancel(false);
+                synchronized (alarmState) {
+                    // Clear the interrupt only if it was ours.
+                    if (alarmState[0] == 2) Thread.interrupted();
+                    alarmState[0]= 1;
+                }
+            }
         }
     }
 
+    /** Throw a DeadlineExceededException if the deadline of this phase has passed. */
+    private void checkDeadline() {
+        if (pastDeadline()) throw new DeadlineExceededException();
+    }
+
+    /** Return true iff the current phase had a deadline and it has passed. */
+    private boolean pastDeadline() {
+        return deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0;
+    }
+
     /** Run the sewerDiver's seek() function with no timeout. */
     /* package */ void seekNoTimeout() {
+        GameEvents.Phase event= new GameEvents.Phase();
+        event.begin();
         phase= Phase.SEEK;
         stepsTaken= 0;
         seekSucceeded= false;
@@ -225,50 +315,43 @@ public class GameState implements SeekState, ScramState {
 
         try {
             sewerDiver.seek(this);
+            if (pastDeadline()) {
+                seekTimedOut= true;
+                return;
+            }
             // Verify that we returned at the correct location
             if (position.equals(seekSewer.ring())) {
                 seekSucceeded= true;
             } else {
-                errPrintln("seek(...) returned at the wrong location.");
+                printErr("seek(...) returned at the wrong location.");
                 gui.ifPresent(
                     (g) -> g.displayError("seek(f..) returned at the wrong location."));
             }
         } catch (Throwable t) {
-            if (t instanceof ThreadDeath) return;
-            errPrintln("seek(...) threw an exception.");
-            errPrintln("Here is the output.");
-            t.printStackTrace();
+            if (t instanceof DeadlineExceededException || pastDeadline()) {
+                seekTimedOut= true;
+                return;
+            }
+            printErr("seek(...) threw an exception.");
+            printErr("Here is the output.");
+            if (printing) t.printStackTrace();
             gui.ifPresent((g) -> g.displayError(
                 "seek(...) threw an exception. See the console output."));
             seekErred= true;
+        } finally {
+            commit(event, seekSucceeded, seekTimedOut, seekErred, stepsTaken);
         }
     }
 
-    @SuppressWarnings("deprecation")
-    /** Wrap a call scram() with the timeout functionality. */
+    /** Run scram() with a deadline SCRAM_TIMEOUT seconds from now. */
     private void scramWithTimeLimit() {
-        FutureTask<Void> ft= new FutureTask<>(new Callable<Void>() {
-            @Override
-            public Void call() {
-                scramNoTimeout();
-                return null;
-            }
-        });
-
-        Thread t= new Thread(ft);
-        t.start();
-        try {
-            ft.get(SCRAM_TIMEOUT, TimeUnit.SECONDS);
-        } catch (TimeoutException e) {
-            t.stop();
-            scramTimedOut= true;
-        } catch (InterruptedException | ExecutionException e) {
-            System.err.println("ERROR"); // Shouldn't happen
-        }
+        runWithDeadline(SCRAM_TIMEOUT, this::scramNoTimeout);
     }
 
     /** Handle the logic for running the sewerDiver's scram() procedure with no timeout. */
     /* package */ void scramNoTimeout() {
+        GameEvents.Phase event= new GameEvents.Phase();
+        event.begin();
         phase= Phase.SCRAM;
         Tile ringTile= seekSewer.ring().getTile();
         position= scramSewer.nodeAt(ringTile.row(), ringTile.column());
@@ -280,16 +363,19 @@ public class GameState implements SeekState, ScramState {
 
         // Pick up coins on start phase (if any)
         Node cn= currentNode();
-        int coins= cn.getTile().coins();
-        if (coins > 0) {
+        if (coinsAt(cn) > 0) {
             grabCoins();
         }
 
         try {
             sewerDiver.scram(this);
+            if (pastDeadline()) {
+                scramTimedOut= true;
+                return;
+            }
             // Verify that the diver returned at the correct location
             if (!position.equals(scramSewer.ring())) {
-                errPrintln("scram(..) returned at the wrong location.");
+                printErr("scram(..) returned at the wrong location.");
                 gui.ifPresent((g) -> g
                     .displayError("scram(...) returned at the wrong location."));
                 return;
@@ -297,29 +383,34 @@ public class GameState implements SeekState, ScramState {
 
             scramSucceeded= true;
             gui.ifPresent((g) -> g.getOptionsPanel().changePhaseLabel("Scram done!"));
-            System.out.println("Scram Succeeded!");
+            print("Scram Succeeded!");
             // Since the exit has been reached, turn off painting the
             GUI g= gui.isPresent() ? gui.get() : null;
             gui.MazePanel mp= g == null ? null : g.getMazePanel();
             if (mp != null) mp.repaint();
 
         } catch (OutOfTimeException e) {
-            errPrintln("scram(...) ran out of steps before returning!");
+            printErr("scram(...) ran out of steps before returning!");
             gui.ifPresent((g) -> g
                 .displayError("scram(...) ran out of steps before returning!"));
         } catch (Throwable t) {
-            if (t instanceof ThreadDeath) return;
-            errPrintln("scram(...) threw an exception:");
-            t.printStackTrace();
+            if (t instanceof DeadlineExceededException || pastDeadline()) {
+                scramTimedOut= true;
+                return;
+            }
+            printErr("scram(...) threw an exception:");
+            if (printing) t.printStackTrace();
             gui.ifPresent((g) -> g.displayError(
                 "scram(...) threw an exception. See the console output."));
             scramErred= true;
+        } finally {
+            commit(event, scramSucceeded, scramTimedOut, scramErred, stepsToGo);
         }
 
-        outPrintln("Coins collected   : " + getCoinsCollected());
+        print("Coins collected   : " + getCoinsCollected());
         DecimalFormat df= new DecimalFormat("#.##");
-        outPrintln("Bonus multiplier : " + df.format(computeBonusFactor()));
-        outPrintln("Score            : " + getScore());
+        print("Bonus multiplier : " + df.format(computeBonusFactor()));
+        print("Score            : " + getScore());
     }
 
     /** Making sure the sewerDiver always has the minimum steps needed to get out, <br>
@@ -347,12 +438,16 @@ public class GameState implements SeekState, ScramState {
      * @param id The Id of the neighboring Node to move to */
     @Override
     public void moveTo(long id) {
+        checkDeadline();
         if (phase != Phase.SEEK) {
             throw new IllegalStateException("moveTo(ID) can only be called while scramming!");
         }
 
+        GameEvents.Move event= new GameEvents.Move();
+        event.begin();
         for (Node n : position.neighbors()) {
             if (n.getId() == id) {
+                commit(event, position, n);
                 position= n;
                 stepsTaken++ ;
                 gui.ifPresent((g) -> g.updateBonus(computeBonusFactor()));
@@ -366,6 +461,7 @@ public class GameState implements SeekState, ScramState {
     /** Return the unique id of the current location. */
     @Override
     public long currentLocation() {
+        checkDeadline();
         if (phase != Phase.SEEK) {
             throw new IllegalStateException(
                 "currentLocation() can be called only while scramming!");
@@ -378,28 +474,60 @@ public class GameState implements SeekState, ScramState {
      * distance from that node to the ring. */
     @Override
     public Collection<NodeStatus> neighbors() {
+        checkDeadline();
         if (phase != Phase.SEEK) {
             throw new IllegalStateException("neighbors() can be called only while scramming!");
         }
 
-        Collection<NodeStatus> options= new ArrayList<>();
-        for (Node n : position.neighbors()) {
-            int distance= computeDistanceToRing(n.getTile().row(), n.getTile().column());
-            options.add(new NodeStatus(n.getId(), distance));
+        GameEvents.Neighbors event= new GameEvents.Neighbors();
+        event.begin();
+        // The statuses are computed once per sewer system; this is a shared read-only view.
+        List<NodeStatus> options= seekSewer.neighborStatus(position);
+        event.end();
+        if (event.shouldCommit()) {
+            event.location= position.getId();
+            event.count= options.size();
+            event.commit();
         }
         return options;
     }
 
+    /** Call action.accept(id, distance) for each neighbor of the current location, <br>
+     * giving the same ids and distances as neighbors(), without allocating. */
+    @Override
+    public void forEachNeighbor(NeighborConsumer action) {
+        checkDeadline();
+        if (phase != Phase.SEEK) {
+            throw new IllegalStateException(
+                "forEachNeighbor() can be called only while scramming!");
+        }
+
+        GameEvents.Neighbors event= new GameEvents.Neighbors();
+        event.begin();
+        List<NodeStatus> options= seekSewer.neighborStatus(position);
+        for (int k= 0; k < options.size(); k++ ) {
+            NodeStatus w= options.get(k);
+            action.accept(w.getId(), w.getDistanceToRing());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.location= position.getId();
+            event.count= options.size();
+            event.commit();
+        }
+    }
+
     /** Return the Manhattan distance from (row, col) to the ring */
     private int computeDistanceToRing(int row, int col) {
-        return Math.abs(row - seekSewer.ring().getTile().row()) +
-            Math.abs(col - seekSewer.ring().getTile().column());
+        Tile ringTile= seekSewer.ring().getTile();
+        return Math.abs(row - ringTile.row()) + Math.abs(col - ringTile.column());
     }
 
     /** Return the Manhattan distance from the current location <br>
      * to the ring location on the map. */
     @Override
     public int distanceToRing() {
+        checkDeadline();
         if (phase != Phase.SEEK) {
             throw new IllegalStateException(
                 "distanceToRing() can be called only while scramming!");
@@ -410,6 +538,7 @@ public class GameState implements SeekState, ScramState {
 
     @Override
     public Node currentNode() {
+        checkDeadline();
         if (phase != Phase.SCRAM) {
             throw new IllegalStateException("currentNode: Error, " +
                 "current Node may not be accessed unless scramming");
@@ -419,6 +548,7 @@ public class GameState implements SeekState, ScramState {
 
     @Override
     public Node exit() {
+        checkDeadline();
         if (phase != Phase.SCRAM) {
             throw new IllegalStateException("getEntrance: Error, " +
                 "current Node may not be accessed unless scramming");
@@ -428,6 +558,7 @@ public class GameState implements SeekState, ScramState {
 
     @Override
     public Collection<Node> allNodes() {
+        checkDeadline();
         if (phase != Phase.SCRAM) {
             throw new IllegalStateException("getVertices: Error, " +
                 "Vertices may not be accessed unless scramming");
@@ -441,14 +572,18 @@ public class GameState implements SeekState, ScramState {
      * Increment the steps taken if successful. */
     @Override
     public void moveTo(Node n) {
+        checkDeadline();
         if (phase != Phase.SCRAM) {
             throw new IllegalStateException("Call moveTo(Node) only when scramming!");
         }
+        if (!position.isNeighbor(n))
+            throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+        GameEvents.Move event= new GameEvents.Move();
+        event.begin();
         int distance= position.edge(n).length;
         if (stepsToGo - distance < 0) throw new OutOfTimeException();
 
-        if (!position.neighbors().contains(n))
-            throw new IllegalArgumentException("moveTo: Node must be adjacent to position");
+        commit(event, position, n);
         position= n;
         stepsToGo-= distance;
         gui.ifPresent((g) -> g.updateStepsToGo(stepsToGo));
@@ -456,6 +591,36 @@ public class GameState implements SeekState, ScramState {
         grabCoins();
     }
 
+    /** End event, a move from node from to node to in the current phase, and <br>
+     * if the recording wants it, fill it in and commit it. */
+    private void commit(GameEvents.Move event, Node from, Node to) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase= phase.name();
+            event.from= from.getId();
+            event.to= to.getId();
+            event.length= from.edge(to).length;
+            event.commit();
+        }
+    }
+
+    /** End event, the current phase, and if the recording wants it, fill it in <br>
+     * and commit it. */
+    private void commit(GameEvents.Phase event, boolean succeeded, boolean timedOut,
+        boolean erred, int steps) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase= phase.name();
+            event.seed= seed;
+            event.succeeded= succeeded;
+            event.timedOut= timedOut;
+            event.erred= erred;
+            event.steps= steps;
+            event.coins= coinsCollected;
+            event.commit();
+        }
+    }
+
     /** Pick up coins. <br>
      * Coins on a Node n are picked up automatically when the scram phase starts and<br>
      * when a call moveTo(n) is executed. */
@@ -463,13 +628,24 @@ public class GameState implements SeekState, ScramState {
         if (phase != Phase.SCRAM) {
             throw new IllegalStateException("Call grabCoins() only when scramming!");
         }
-        coinsCollected+= position.getTile().takeCoins();
+        int v= position.getTile().index();
+        coinsCollected+= coins[v];
+        coins[v]= 0;
         gui.ifPresent((g) -> g.updateCoins(coinsCollected, getScore()));
     }
 
+    /** Return the coins left on node n in this game: 0 if they have been picked up. <br>
+     * A node of the seek sewer system has the coins of its tile. <br>
+     * Unlike the other ScramState methods, this may be called in any phase. */
+    @Override
+    public int coinsAt(Node n) {
+        return n.sewers() == scramSewer ? coins[n.getTile().index()] : n.getTile().originalCoinValue();
+    }
+
     @Override
     /** Return the number of steps remaining to scram. */
     public int stepsToGo() {
+        checkDeadline();
         if (phase != Phase.SCRAM) {
             throw new IllegalStateException(
                 "stepsToGo() can be called only while scramming!");
@@ -477,6 +653,27 @@ public class GameState implements SeekState, ScramState {
         return stepsToGo;
     }
 
+    /** Set whether a phase run with a time limit also has its thread interrupted <br>
+     * at its deadline. It is true by default. */
+    /* package */ void setInterruptOnTimeout(boolean b) {
+        interruptOnTimeout= b;
+    }
+
+    /** Set whether this game prints its progress and errors. */
+    /* package */ void setPrinting(boolean b) {
+        printing= b;
+    }
+
+    /** Return the number of steps taken in the seek phase. */
+    /* package */ int getSeekSteps() {
+        return stepsTaken;
+    }
+
+    /** Return the number of steps left when the scram phase ended. */
+    /* package */ int getScramStepsToGo() {
+        return stepsToGo;
+    }
+
     /* package */ int getCoinsCollected() {
         return coinsCollected;
     }
@@ -568,7 +765,7 @@ public class GameState implements SeekState, ScramState {
             }
         }
 
-        int totalScore= 0;
+        long totalScore= 0;
         for (int i= 0; i < numTimesToRun; i++ ) {
             totalScore+= runNewGame(seed, false, new McDiver());
             if (seed != 0) seed= new Random(seed).nextLong();
@@ -578,6 +775,16 @@ public class GameState implements SeekState, ScramState {
         outPrintln("Average score : " + totalScore / numTimesToRun);
     }
 
+    /** Print s on System.out if this game prints. */
+    private void print(String s) {
+        if (printing) System.out.println(s);
+    }
+
+    /** Print s on System.err if this game prints. */
+    private void printErr(String s) {
+        if (printing) System.err.println(s);
+    }
+
     static void outPrintln(String s) {
         if (shouldPrint) System.out.println(s);
     }
@@ -0,0 +1,176 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An instance is a bitboard of the graph of a sewer system in which every edge has<br>
+ * length 1 and joins two grid neighbors, as in the sewer systems digExploreSewer makes.
+ *
+ * Each grid row is a mask of words() longs: bit b of word k stands for column 64k + b.<br>
+ * The masks of all rows are kept one after the other in one long[], so that a search<br>
+ * walks contiguous memory. Row r of open has the bits of the open tiles of row r; row r<br>
+ * of east has the bit of column c iff there is an edge between (r, c) and (r, c+1);<br>
+ * row r of south has the bit of column c iff there is an edge between (r, c) and (r+1, c).
+ *
+ * distances() computes a distance field by breadth-first search one whole level at a<br>
+ * time: the frontier is a set of row masks, and the next level is the frontier moved<br>
+ * one column east and west (shifts ANDed with east) and one row north and south (ANDs<br>
+ * with south), minus the tiles already reached. A level costs a handful of word<br>
+ * operations per row the frontier touches, instead of queue operations per node. */
+public final class GridBitboard {
+
+	/** Number of rows, of columns, and of words per row mask */
+	private final int rows, cols, words;
+
+	/** The row masks of the open tiles and of the edges, as described above, one after <br>
+	 * the other: row r of each is words r*words .. r*words + words-1 */
+	private final long[] open, east, south;
+
+	/** Constructor: an empty bitboard of r rows and c columns. */
+	private GridBitboard(int r, int c) {
+		rows= r;
+		cols= c;
+		words= (c + 63) >>> 6;
+		open= new long[r * words];
+		east= new long[r * words];
+		south= new long[r * words];
+	}
+
+	/** Return the bitboard of g, or null if g has an edge whose length is not 1 or <br>
+	 * that does not join grid neighbors, or an edge without its reverse edge <br>
+	 * (graphs read from files may have those). */
+	public static GridBitboard of(CsrGraph g) {
+		int cols= g.columnCount();
+		GridBitboard b= new GridBitboard(g.rowCount(), cols);
+		// west and north are the edges seen from their other end; they must match.
+		long[] west= new long[b.east.length];
+		long[] north= new long[b.south.length];
+		for (int r= 0, v= 0; r < b.rows; r++ ) {
+			for (int c= 0; c < cols; c++ , v++ ) {
+				int i= r * b.words + (c >>> 6);
+				long bit= 1L << c;
+				// Only open tiles have edges, so isOpen is needed only without them.
+				if (g.degree(v) > 0 || g.isOpen(v)) b.open[i]|= bit;
+				for (int e= g.firstEdge(v), end= g.endEdge(v); e < end; e++ ) {
+					int w= g.target(e);
+					if (g.weight(e) != 1) return null;
+					if (w == v + 1 && c + 1 < cols) b.east[i]|= bit;
+					else if (w == v + cols) b.south[i]|= bit;
+					else if (w == v - 1 && c > 0) west[r * b.words + (c - 1 >>> 6)]|= 1L << c - 1;
+					else if (w == v - cols) north[i - b.words]|= bit;
+					else return null;
+				}
+			}
+		}
+		return Arrays.equals(west, b.east) && Arrays.equals(north, b.south) ? b : null;
+	}
+
+	/** Return the number of rows. */
+	public int rowCount() {
+		return rows;
+	}
+
+	/** Return the number of columns. */
+	public int columnCount() {
+		return cols;
+	}
+
+	/** Return the number of words of a row mask. */
+	public int words() {
+		return words;
+	}
+
+	/** Return true iff the tile in row r and column c is open. */
+	public boolean isOpen(int r, int c) {
+		return (open[r * words + (c >>> 6)] & 1L << c) != 0;
+	}
+
+	/** Return the array whose element v is the length of a shortest path from index <br>
+	 * source to index v (indexed like CsrGraph), or ShortestPaths.UNREACHED if there <br>
+	 * is none. These are the distances a ShortestPaths search from source finds. */
+	public int[] distances(int source) {
+		int[] dist= new int[rows * cols];
+		Arrays.fill(dist, ShortestPaths.UNREACHED);
+		// Row r of each of these is words r*words .. r*words + words-1.
+		long[] seen= new long[rows * words];
+		long[] frontier= new long[rows * words];
+		long[] next= new long[rows * words];
+		int sr= source / cols, sc= source % cols;
+		frontier[sr * words + (sc >>> 6)]= 1L << sc;
+		seen[sr * words + (sc >>> 6)]= 1L << sc;
+		dist[source]= 0;
+		// The frontier lies in rows lo..hi.
+		int lo= sr, hi= sr;
+		for (int d= 1; lo <= hi; d++ ) {
+			int newLo= rows, newHi= -1;
+			for (int r= Math.max(lo - 1, 0), last= Math.min(hi + 1, rows - 1); r <= last; r++ ) {
+				boolean any= words == 1 ? expand1(frontier, next, seen, r) :
+					expand(frontier, next, seen, r);
+				if (any) {
+					newLo= Math.min(newLo, r);
+					newHi= r;
+					record(next, r, d, dist);
+				}
+			}
+			// The old frontier becomes the buffer for the level after this one, which
+			// writes only rows near the new frontier, so it must be all 0.
+			Arrays.fill(frontier, lo * words, (hi + 1) * words, 0);
+			long[] t= frontier;
+			frontier= next;
+			next= t;
+			lo= newLo;
+			hi= newHi;
+		}
+		return dist;
+	}
+
+	/** Store in row r of next the tiles of row r one edge from frontier and not in <br>
+	 * seen, and add them to row r of seen. Return true iff there is one. <br>
+	 * Precondition: words = 1 (this is expand() without the carries between words). */
+	private boolean expand1(long[] frontier, long[] next, long[] seen, int r) {
+		long f= frontier[r], e= east[r];
+		long m= (f & e) << 1 | f >>> 1 & e;
+		if (r > 0) m|= frontier[r - 1] & south[r - 1];
+		if (r + 1 < rows) m|= frontier[r + 1] & south[r];
+		m&= ~seen[r];
+		next[r]= m;
+		seen[r]|= m;
+		return m != 0;
+	}
+
+	/** Store in row r of next the tiles of row r one edge from frontier and not in <br>
+	 * seen, and add them to row r of seen. Return true iff there is one. */
+	private boolean expand(long[] frontier, long[] next, long[] seen, int r) {
+		int row= r * words, end= row + words;
+		long any= 0;
+		// carry is the move east out of bit 63 of the word before.
+		long carry= 0;
+		long f= frontier[row];
+		for (int i= row; i < end; i++ ) {
+			long e= east[i];
+			long fNext= i + 1 < end ? frontier[i + 1] : 0;
+			// East from column c to c + 1, and west from column c + 1 to c.
+			long m= (f & e) << 1 | carry | (f >>> 1 | fNext << 63) & e;
+			carry= (f & e) >>> 63;
+			// South from row r - 1, and north from row r + 1.
+			if (r > 0) m|= frontier[i - words] & south[i - words];
+			if (r + 1 < rows) m|= frontier[i + words] & south[i];
+			m&= ~seen[i];
+			next[i]= m;
+			seen[i]|= m;
+			any|= m;
+			f= fNext;
+		}
+		return any != 0;
+	}
+
+	/** Set dist[v] to d for the index v of each tile of row r of mask. */
+	private void record(long[] mask, int r, int d, int[] dist) {
+		for (int k= 0; k < words; k++ ) {
+			long m= mask[r * words + k];
+			while (m != 0) {
+				dist[r * cols + (k << 6) + Long.numberOfTrailingZeros(m)]= d;
+				m&= m - 1;
+			}
+		}
+	}
+}
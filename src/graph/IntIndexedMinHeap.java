@@ -0,0 +1,130 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** An instance is a min-heap of distinct int keys in 0..capacity-1 with int priorities.
+ *
+ * It is InternalMinHeap without objects: the heap is an int[] of keys, priorities are<br>
+ * kept in an int[] indexed by key, and the position of each key in the heap is kept in<br>
+ * an int[] indexed by key instead of a HashMap. Nothing is allocated after construction.<br>
+ * Keys are moved exactly as InternalMinHeap moves values, so both poll keys with equal<br>
+ * priorities in the same order. */
+public final class IntIndexedMinHeap {
+
+	/** Class Invariant: <br>
+	 * 1. b[0..size-1] represents a complete binary tree. b[0] is the root. <br>
+	 * For each k, b[2k+1] and b[2k+2] are the left and right children of b[k]. <br>
+	 * 2. The keys in b[0..size-1] are all different. <br>
+	 * 3. For k in 1..size-1, priority[b[(k-1)/2]] <= priority[b[k]]. <br>
+	 * 4. For each key v, pos[v] = k if b[k] = v for some k in 0..size-1, <br>
+	 * .. and pos[v] = -1 if v is not in the heap. */
+	private final int[] b;
+	private final int[] priority;
+	private final int[] pos;
+	private int size;
+
+	/** Constructor: an empty heap for keys in 0..capacity-1. */
+	public IntIndexedMinHeap(int capacity) {
+		b= new int[capacity];
+		priority= new int[capacity];
+		pos= new int[capacity];
+		Arrays.fill(pos, -1);
+	}
+
+	/** Return the number of keys in the heap. */
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff key v is in the heap. */
+	public boolean contains(int v) {
+		return pos[v] >= 0;
+	}
+
+	/** Return the priority of key v. Precondition: v is in the heap. */
+	public int priority(int v) {
+		return priority[v];
+	}
+
+	/** Add key v with priority p to the heap. <br>
+	 * Throw an IllegalArgumentException if v is already in the heap. */
+	public void add(int v, int p) {
+		if (pos[v] >= 0) throw new IllegalArgumentException("add: key is already in the heap");
+		b[size]= v;
+		pos[v]= size;
+		priority[v]= p;
+		size++ ;
+		bubbleUp(size - 1);
+	}
+
+	/** Return the key with lowest priority without removing it. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	public int peek() {
+		if (size == 0) throw new NoSuchElementException();
+		return b[0];
+	}
+
+	/** Remove and return the key with lowest priority. <br>
+	 * Throw a NoSuchElementException if the heap is empty. */
+	public int poll() {
+		if (size == 0) throw new NoSuchElementException();
+		int v= b[0];
+		swap(0, size - 1);
+		size-- ;
+		pos[v]= -1;
+		bubbleDown(0);
+		return v;
+	}
+
+	/** Change the priority of key v to p. <br>
+	 * Throw an IllegalArgumentException if v is not in the heap. */
+	public void changePriority(int v, int p) {
+		int k= pos[v];
+		if (k < 0) throw new IllegalArgumentException("changePriority: key is not in the heap");
+		priority[v]= p;
+		bubbleUp(k);
+		bubbleDown(k);
+	}
+
+	/** Remove all keys from the heap. This takes time proportional to its size. */
+	public void clear() {
+		for (int k= 0; k < size; k++ ) {
+			pos[b[k]]= -1;
+		}
+		size= 0;
+	}
+
+	/** Swap b[i] and b[j], keeping pos in sync. */
+	private void swap(int i, int j) {
+		int t= b[i];
+		b[i]= b[j];
+		b[j]= t;
+		pos[b[i]]= i;
+		pos[b[j]]= j;
+	}
+
+	/** Bubble b[k] up the heap to its right place. A key never moves above <br>
+	 * one with the same priority. */
+	private void bubbleUp(int k) {
+		while (k > 0) {
+			int p= (k - 1) / 2;
+			if (priority[b[k]] >= priority[b[p]]) return;
+			swap(k, p);
+			k= p;
+		}
+	}
+
+	/** Bubble b[k] down the heap to its right place. If both children have the <br>
+	 * same priority, choose the right one. */
+	private void bubbleDown(int k) {
+		if (k < 0 || size <= k) return;
+		while (2 * k + 1 < size) {
+			int c= 2 * k + 1;
+			if (c + 1 < size && priority[b[c + 1]] <= priority[b[c]]) c= c + 1;
+			if (priority[b[k]] <= priority[b[c]]) return;
+			swap(k, c);
+			k= c;
+		}
+	}
+}
@@ -0,0 +1,335 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/** An instance is a sewer system too large for Sewers, e.g. 10,000 x 10,000 tiles.
+ *
+ * Sewers keeps a Node with two sets and a Tile for every cell, walls included, which<br>
+ * does not fit in the heap for grids this size. Here the grid is kept outside the heap<br>
+ * in OffHeapStores, one or two bytes per cell:<br>
+ * 1. types: the TileType of each cell (0 for WALL, ordinal + 1 otherwise).<br>
+ * 2. coins: the coins of each cell, as a short.<br>
+ * 3. weights: the weight of the edge to the SOUTH neighbor in the low 4 bits and of <br>
+ * .. the edge to the EAST neighbor in the high 4 bits (0 if there is no edge).
+ *
+ * Cells are identified by their index row * columns + column, as in CsrGraph, so<br>
+ * rows * columns must be less than 2^31. The read-only methods mirror those of Sewers<br>
+ * with indices in place of Nodes. There are no Nodes, so a game cannot be played on<br>
+ * an instance, and solvers written against ScramState do not run on it.
+ *
+ * The generator is SewerDigger, shared with Sewers, so for a grid that Sewers can<br>
+ * hold, the same Random gives the same sewer system.<br>
+ * The memory is freed when the instance is garbage collected; large grids need a<br>
+ * large -XX:MaxDirectMemorySize. */
+public final class LargeSewers {
+	/** Distance meaning "not reached" */
+	public static final int UNREACHED= Integer.MAX_VALUE;
+
+	/** The tile types. The code of an open type t in types is t.ordinal() + 1 */
+	private static final Tile.TileType[] TYPES= Tile.TileType.values();
+
+	/** The values of Sewers.Direction */
+	private static final Sewers.Direction[] DIRECTIONS= Sewers.Direction.values();
+
+	/** Number of buckets of the shortest-path search (see ShortestPaths) */
+	private static final int BUCKETS= Sewers.MAX_EDGE_WEIGHT + 1;
+
+	/** Number of rows and columns */
+	private final int rows, cols;
+
+	/** Tile types, coins and edge weights of all cells (see the class specification) */
+	private final OffHeapStore types, coins, weights;
+
+	/** Number of open tiles */
+	private int openTiles;
+
+	/** Indices of the entrance and the ring */
+	private int entrance, ring;
+
+	/** ringDistances holds, as ints, the shortest distance from each index to the ring.<br>
+	 * It is created on first use by ringDistances() */
+	private volatile OffHeapStore ringDistances;
+
+	/** Return a new random sewer system with r rows, c columns, and no coins,<br>
+	 * all edges have weight 1, and there is a ring a reasonable distance from the exit.<br>
+	 * rand is the source of randomness. See Sewers.digExploreSewer. */
+	public static LargeSewers digExploreSewer(int r, int c, Random rand) {
+		int minRingDist= Sewers.minRingDistance(r, c);
+		LargeSewers sewers= new LargeSewers(r, c, rand, () -> 1, () -> 0, Tile.TileType.RING);
+		while (sewers.distanceToRing(sewers.entrance()) < minRingDist) {
+			sewers= new LargeSewers(r, c, rand, () -> 1, () -> 0, Tile.TileType.RING);
+		}
+		return sewers;
+	}
+
+	/** Return a new random sewer system with r rows, c columns, and random coins <br>
+	 * and edge weights, whose exit is its entrance. <br>
+	 * It is guaranteed that (currentRow, currentCol) will be an open floor cell.<br>
+	 * rand is the source of randomness. See Sewers.digGetOutSewer. */
+	public static LargeSewers digGetOutSewer(int r, int c, int currentRow, int currentCol,
+		Random rand) {
+		LargeSewers sewers;
+		do {
+			sewers= new LargeSewers(r, c, rand, () -> rand.nextInt(Sewers.MAX_EDGE_WEIGHT) + 1,
+				() -> Sewers.randomCoinValue(rand), Tile.TileType.ENTRANCE);
+		} while (sewers.typeAt(currentRow, currentCol) != Tile.TileType.FLOOR);
+		return sewers;
+	}
+
+	/** Constructor: a new sewer system of size (rws, cls), generated as Sewers does. <br>
+	 * Randomness rand is used to determine which grid tiles are open. <br>
+	 * This uses edgeWeightGenerator and coinGenerator to <br>
+	 * generate edge weights and coin values. <br>
+	 * Precondition: targetType is either Tile.TileType.RING or Tile.TileType.ENTRANCE. */
+	private LargeSewers(int rws, int cls, Random rand,
+		IntSupplier edgeWeightGenerator,
+		IntSupplier coinGenerator,
+		Tile.TileType targetType) {
+		if ((long) rws * cls > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("LargeSewers: rows * columns must be < 2^31");
+		}
+		rows= rws;
+		cols= cls;
+		long size= (long) rows * cols;
+		types= new OffHeapStore(size);
+		coins= new OffHeapStore(2 * size);
+		weights= new OffHeapStore(size);
+
+		generateGraph(rand, targetType, coinGenerator);
+		createEdges(edgeWeightGenerator);
+	}
+
+	/** Generate a new random graph that fits within the grid, setting types, coins, <br>
+	 * openTiles, entrance and ring. See SewerDigger.dig. */
+	private void generateGraph(Random rand, Tile.TileType targetType,
+		IntSupplier coinGenerator) {
+		int size= rows * cols;
+		OffHeapStore seen= new OffHeapStore((size + 7) / 8);
+		// The open tiles, as ints, in the order they were opened
+		OffHeapStore opened= new OffHeapStore(4L * size);
+
+		ring= SewerDigger.dig(rows, cols, rand, targetType, new SewerDigger.Cells() {
+			@Override
+			public boolean isOpen(int v) {
+				return LargeSewers.this.isOpen(v);
+			}
+
+			@Override
+			public boolean markSeen(int v) {
+				int b= seen.getByte(v >>> 3);
+				if ((b & 1 << (v & 7)) != 0) return false;
+				seen.putByte(v >>> 3, (byte) (b | 1 << (v & 7)));
+				return true;
+			}
+
+			@Override
+			public void open(int v, Tile.TileType t) {
+				LargeSewers.this.setType(v, t);
+				if (t == Tile.TileType.FLOOR) {
+					coins.putShort(2L * v, (short) coinGenerator.getAsInt());
+				}
+				opened.putInt(4L * openTiles++ , v);
+			}
+
+			@Override
+			public int opened(int i) {
+				return opened.getInt(4L * i);
+			}
+
+			@Override
+			public void setType(int v, Tile.TileType t) {
+				LargeSewers.this.setType(v, t);
+			}
+		});
+		entrance= opened.getInt(0);
+	}
+
+	/** Add edges between adjacent open tiles, with weights from edgeWeightGenerator, <br>
+	 * in the order of Sewers.createEdges. */
+	private void createEdges(IntSupplier edgeWeightGenerator) {
+		for (int i= 0; i < rows - 1; i++ ) {
+			for (int j= 0; j < cols - 1; j++ ) {
+				int v= i * cols + j;
+				if (!isOpen(v)) continue;
+				int south= isOpen(v + cols) ? edgeWeightGenerator.getAsInt() : 0;
+				int east= isOpen(v + 1) ? edgeWeightGenerator.getAsInt() : 0;
+				weights.putByte(v, (byte) (south | east << 4));
+			}
+		}
+	}
+
+	/** Set the type of the tile with index v to t. Precondition: t is not WALL. */
+	private void setType(int v, Tile.TileType t) {
+		types.putByte(v, (byte) (t.ordinal() + 1));
+	}
+
+	/** Return the number of rows in the grid. */
+	public int rowCount() {
+		return rows;
+	}
+
+	/** Return the number of columns in the grid. */
+	public int columnCount() {
+		return cols;
+	}
+
+	/** Return the number of open tiles (this is the size of the graph). */
+	public int numOpenTiles() {
+		return openTiles;
+	}
+
+	/** Return the index of (r, c). */
+	public int index(int r, int c) {
+		return r * cols + c;
+	}
+
+	/** Return the index of the entrance. */
+	public int entrance() {
+		return entrance;
+	}
+
+	/** Return the index of the ring. */
+	public int ring() {
+		return ring;
+	}
+
+	/** Return true iff the tile with index v is open. */
+	public boolean isOpen(int v) {
+		return types.getByte(v) != 0;
+	}
+
+	/** Return the type of tile (r, c). Precondition: (r, c) is in the grid. */
+	public Tile.TileType typeAt(int r, int c) {
+		int code= types.getByte(index(r, c));
+		return code == 0 ? Tile.TileType.WALL : TYPES[code - 1];
+	}
+
+	/** Return the coins on tile (r, c). Precondition: (r, c) is in the grid. */
+	public int coinsAt(int r, int c) {
+		return coins.getShort(2L * index(r, c));
+	}
+
+	/** Return the index of the open tile next to index v in direction d, <br>
+	 * or -1 if there is no edge from v in that direction. */
+	public int neighbor(int v, Sewers.Direction d) {
+		return edgeWeight(v, d) == 0 ? -1 : v + d.row() * cols + d.column();
+	}
+
+	/** Return the weight of the edge from index v in direction d, 0 if there is none. */
+	public int edgeWeight(int v, Sewers.Direction d) {
+		switch (d) {
+		case SOUTH:
+			return v / cols < rows - 1 ? weights.getByte(v) & 0xF : 0;
+		case EAST:
+			return v % cols < cols - 1 ? (weights.getByte(v) & 0xF0) >>> 4 : 0;
+		case NORTH:
+			return v >= cols ? weights.getByte(v - cols) & 0xF : 0;
+		case WEST:
+			return v % cols > 0 ? (weights.getByte(v - 1) & 0xF0) >>> 4 : 0;
+		default:
+			throw new IllegalStateException("Unexpected direction!");
+		}
+	}
+
+	/** Return the length of a shortest path from index v to the ring, <br>
+	 * or UNREACHED if there is none. The distance field of the ring is computed <br>
+	 * (off the heap) on the first call; later calls take constant time. */
+	public int distanceToRing(int v) {
+		return ringDistances().getInt(4L * v);
+	}
+
+	/** Return the distances to the ring, computing them if necessary. */
+	private OffHeapStore ringDistances() {
+		OffHeapStore d= ringDistances;
+		if (d == null) {
+			synchronized (this) {
+				d= ringDistances;
+				if (d == null) {
+					d= new OffHeapStore(4L * rows * cols);
+					search(ring, -1, d);
+					ringDistances= d;
+				}
+			}
+		}
+		return d;
+	}
+
+	/** Return the length of a shortest path from index from to index to, <br>
+	 * or UNREACHED if there is none. This allocates a distance field off the heap. */
+	public int minPathLength(int from, int to) {
+		OffHeapStore d= new OffHeapStore(4L * rows * cols);
+		search(from, to, d);
+		return d.getInt(4L * to);
+	}
+
+	/** Store in dist (as ints) the shortest distances from index source, stopping <br>
+	 * once index target is settled (never if target is -1).<br>
+	 * This is Dial's algorithm with lazy deletion: a node is added to a bucket each time<br>
+	 * its distance drops, and entries whose distance has changed since are skipped. */
+	private void search(int source, int target, OffHeapStore dist) {
+		dist.fillInts((long) rows * cols, UNREACHED);
+		IntQueue[] buckets= new IntQueue[BUCKETS];
+		for (int b= 0; b < BUCKETS; b++ ) {
+			buckets[b]= new IntQueue();
+		}
+
+		dist.putInt(4L * source, 0);
+		buckets[0].add(source);
+		long pending= 1;
+		for (int d= 0; pending > 0; d++ ) {
+			IntQueue bucket= buckets[d % BUCKETS];
+			while (!bucket.isEmpty()) {
+				int v= bucket.poll();
+				pending-- ;
+				if (dist.getInt(4L * v) != d) continue;
+				if (v == target) return;
+				for (Sewers.Direction dir : DIRECTIONS) {
+					int weight= edgeWeight(v, dir);
+					if (weight == 0) continue;
+					int w= v + dir.row() * cols + dir.column();
+					int wDistNew= d + weight;
+					if (wDistNew < dist.getInt(4L * w)) {
+						dist.putInt(4L * w, wDistNew);
+						buckets[wDistNew % BUCKETS].add(w);
+						pending++ ;
+					}
+				}
+			}
+		}
+	}
+
+	/** An instance is a FIFO queue of ints in a growable array. */
+	private static final class IntQueue {
+		private int[] b= new int[64];
+		/** The queue is b[head..tail-1] */
+		private int head, tail;
+
+		/** Add x to the end of the queue. */
+		void add(int x) {
+			if (tail == b.length) {
+				if (head > 0) {
+					System.arraycopy(b, head, b, 0, tail - head);
+					tail-= head;
+					head= 0;
+				} else {
+					b= Arrays.copyOf(b, 2 * b.length);
+				}
+			}
+			b[tail++ ]= x;
+		}
+
+		/** Remove and return the first element. Precondition: the queue is not empty. */
+		int poll() {
+			int x= b[head++ ];
+			if (head == tail) head= tail= 0;
+			return x;
+		}
+
+		/** Return true iff the queue is empty. */
+		boolean isEmpty() {
+			return head == tail;
+		}
+	}
+}
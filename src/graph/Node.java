@@ -2,7 +2,6 @@ package graph;
 
 import java.util.Collections;
 import java.util.LinkedHashSet;
-import java.util.Objects;
 import java.util.Set;
 
 /** An instance is a node of the graph */
@@ -23,6 +22,18 @@ public class Node {
     /** Extra state that belongs to this node */
     private final Tile tile;
 
+    /** The sewer system this Node belongs to (null until that Sewers is built) */
+    private Sewers sewers;
+
+    /** byDirection[d.ordinal()] is the edge leaving this Node in direction d of <br>
+     * Sewers.Direction, or null if there is none. It is filled by setSewers(), once the <br>
+     * edges are final. It stays null if some edge does not join grid neighbors, <br>
+     * in which case lookups scan the edges. */
+    private Edge[] byDirection;
+
+    /** The byDirection of every node without edges. It is shared, so it is never changed. */
+    private static final Edge[] NO_EDGES= new Edge[Sewers.Direction.values().length];
+
     /** Constructor: a Node for tile t using t's row */
     /* package */ Node(Tile t, int numCols) {
         this(t.row() * numCols + t.column(), t);
@@ -40,12 +51,63 @@ public class Node {
         tile= t;
     }
 
+    /** Constructor: a node for tile t with id givenId whose edges and neighbors are <br>
+     * e and nbrs, which are unmodifiable. */
+    private Node(long givenId, Tile t, Set<Edge> e, Set<Node> nbrs) {
+        id= givenId;
+        edges= e;
+        neighbors= nbrs;
+
+        unmodifiableEdges= e;
+        unmodifiableNeighbors= nbrs;
+
+        tile= t;
+    }
+
+    /** Return a node for the wall at (r, c) of grid g, with id r * g.columnCount() + c <br>
+     * like Node(Tile, int). <br>
+     * A wall never has edges, so instead of its own sets of edges and neighbors it <br>
+     * shares the empty ones with all walls (and adding an edge to it throws an <br>
+     * UnsupportedOperationException). Walls are a large share of all cells. */
+    /* package */ static Node wall(TileGrid g, int r, int c) {
+        return new Node(r * g.columnCount() + c, new Tile(g, r, c, 0, Tile.TileType.WALL),
+            Collections.emptySet(), Collections.emptySet());
+    }
+
     /** Add edge e to this node. */
     /* package */ void addEdge(Edge e) {
         edges.add(e);
         neighbors.add(e.getOther(this));
     }
 
+    /** Record that this node belongs to sewer system s, whose construction is <br>
+     * finished, and index the (now final) edges by direction. */
+    /* package */ void setSewers(Sewers s) {
+        sewers= s;
+        if (edges.isEmpty()) {
+            byDirection= NO_EDGES;
+            return;
+        }
+        Edge[] slots= new Edge[Sewers.Direction.values().length];
+        for (Edge e : edges) {
+            Sewers.Direction d= direction(e.getOther(this));
+            if (d == null || slots[d.ordinal()] != null) return;
+            slots[d.ordinal()]= e;
+        }
+        byDirection= slots;
+    }
+
+    /** Return the direction from this node to grid neighbor q, <br>
+     * or null if q is not next to this node on the grid. */
+    private Sewers.Direction direction(Node q) {
+        return Sewers.Direction.of(q.tile.row() - tile.row(), q.tile.column() - tile.column());
+    }
+
+    /** Return the sewer system this node belongs to (null if not yet known). */
+    /* package */ Sewers sewers() {
+        return sewers;
+    }
+
     /** Return the unique Identifier of this Node. */
     public long getId() {
         return id;
@@ -54,12 +116,41 @@ public class Node {
     /** Return the Edge of this Node that connects to Node q. <br>
      * Throw an IllegalArgumentException if edge doesn't exist */
     public Edge edge(Node q) {
-        for (Edge e : edges) {
-            if (e.destination().equals(q)) { return e; }
+        if (byDirection != null) {
+            Sewers.Direction d= direction(q);
+            Edge e= d == null ? null : byDirection[d.ordinal()];
+            if (e != null && e.destination().equals(q)) { return e; }
+        } else {
+            for (Edge e : edges) {
+                if (e.destination().equals(q)) { return e; }
+            }
         }
         throw new IllegalArgumentException("getEdge: Node must be a neighbor of this Node");
     }
 
+    /** Return the Edge leaving this Node in direction d, or null if there is none. */
+    public Edge edge(Sewers.Direction d) {
+        if (byDirection != null) return byDirection[d.ordinal()];
+        for (Edge e : edges) {
+            if (direction(e.getOther(this)) == d) { return e; }
+        }
+        return null;
+    }
+
+    /** Return the neighbor of this Node in direction d, or null if there is none. */
+    public Node neighbor(Sewers.Direction d) {
+        Edge e= edge(d);
+        return e == null ? null : e.getOther(this);
+    }
+
+    /** Return true iff q is a neighbor of this Node. */
+    public boolean isNeighbor(Node q) {
+        if (byDirection == null) return neighbors.contains(q);
+        Sewers.Direction d= direction(q);
+        Edge e= d == null ? null : byDirection[d.ordinal()];
+        return e != null && e.getOther(this).equals(q);
+    }
+
     /** Return an unmodifiable view of the Edges leaving this Node. */
     public Set<Edge> exits() {
         return unmodifiableEdges;
@@ -84,6 +175,7 @@ public class Node {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        // Objects.hash(id), without boxing id into a varargs array
+        return 31 + Long.hashCode(id);
     }
 }
@@ -0,0 +1,63 @@
+package graph;
+
+/** An instance is a set of nodes of one sewer system, kept as a bit per grid cell.
+ *
+ * A node's bit is its CsrGraph index (row * columns + column), so add, remove and<br>
+ * contains are a few word operations, with no hashing and no boxing. The set has room<br>
+ * for every cell of the grid, Sewers.rowCount() * Sewers.columnCount() bits. */
+public final class NodeBitSet {
+
+	/** The sewer system's CSR view, which gives the index of a node */
+	private final CsrGraph g;
+
+	/** Bit v % 64 of bits[v / 64] is 1 iff the node with index v is in the set. */
+	private final long[] bits;
+
+	/** Number of nodes in the set */
+	private int size;
+
+	/** Constructor: an empty set of nodes of sewer system s. */
+	public NodeBitSet(Sewers s) {
+		g= s.csr();
+		bits= new long[(g.size() + 63) >>> 6];
+	}
+
+	/** Return an empty set of nodes of the sewer system that node n belongs to. */
+	public static NodeBitSet forSewersOf(Node n) {
+		return new NodeBitSet(n.sewers());
+	}
+
+	/** Return the number of nodes in this set. */
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff node n is in this set. <br>
+	 * Precondition: n is a node of this set's sewer system. */
+	public boolean contains(Node n) {
+		int v= g.index(n);
+		return (bits[v >>> 6] & 1L << v) != 0;
+	}
+
+	/** Add node n to this set. Return true iff it was not already in it. <br>
+	 * Precondition: n is a node of this set's sewer system. */
+	public boolean add(Node n) {
+		int v= g.index(n);
+		long old= bits[v >>> 6];
+		bits[v >>> 6]= old | 1L << v;
+		if ((old & 1L << v) != 0) return false;
+		size++ ;
+		return true;
+	}
+
+	/** Remove node n from this set. Return true iff it was in it. <br>
+	 * Precondition: n is a node of this set's sewer system. */
+	public boolean remove(Node n) {
+		int v= g.index(n);
+		long old= bits[v >>> 6];
+		bits[v >>> 6]= old & ~(1L << v);
+		if ((old & 1L << v) == 0) return false;
+		size-- ;
+		return true;
+	}
+}
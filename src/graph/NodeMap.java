@@ -0,0 +1,67 @@
+package graph;
+
+/** An instance is a map from the nodes of one sewer system to values of type V, kept<br>
+ * in an array indexed by the nodes' CsrGraph indexes (row * columns + column).
+ *
+ * get and put are array accesses, with no hashing. The map has room for every cell<br>
+ * of the grid, Sewers.rowCount() * Sewers.columnCount() entries. Values may not be null:<br>
+ * null marks a node without an entry. */
+public final class NodeMap<V> {
+
+	/** The sewer system's CSR view, which gives the index of a node */
+	private final CsrGraph g;
+
+	/** values[v] is the value of the node with index v, or null if it has no entry. */
+	private final Object[] values;
+
+	/** Number of entries */
+	private int size;
+
+	/** Constructor: an empty map on the nodes of sewer system s. */
+	public NodeMap(Sewers s) {
+		g= s.csr();
+		values= new Object[g.size()];
+	}
+
+	/** Return an empty map on the nodes of the sewer system that node n belongs to. */
+	public static <V> NodeMap<V> forSewersOf(Node n) {
+		return new NodeMap<>(n.sewers());
+	}
+
+	/** Return the number of entries. */
+	public int size() {
+		return size;
+	}
+
+	/** Return true iff node n has an entry. <br>
+	 * Precondition: n is a node of this map's sewer system. */
+	public boolean containsKey(Node n) {
+		return values[g.index(n)] != null;
+	}
+
+	/** Return the value of node n, or null if n has no entry. <br>
+	 * Precondition: n is a node of this map's sewer system. */
+	@SuppressWarnings("unchecked")
+	public V get(Node n) {
+		return (V) values[g.index(n)];
+	}
+
+	/** Make v the value of node n and return n's old value (null if it had none). <br>
+	 * Precondition: n is a node of this map's sewer system and v is not null. */
+	public V put(Node n, V v) {
+		if (v == null) throw new IllegalArgumentException("put: the value may not be null");
+		V old= get(n);
+		values[g.index(n)]= v;
+		if (old == null) size++ ;
+		return old;
+	}
+
+	/** Remove the entry of node n and return its value (null if it had none). <br>
+	 * Precondition: n is a node of this map's sewer system. */
+	public V remove(Node n) {
+		V old= get(n);
+		values[g.index(n)]= null;
+		if (old != null) size-- ;
+		return old;
+	}
+}
@@ -1,6 +1,5 @@
 package graph;
 
-import java.util.Objects;
 
 public final class NodeStatus implements Comparable<NodeStatus> {
     /** This node's id */
@@ -49,6 +48,7 @@ public final class NodeStatus implements Comparable<NodeStatus> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        // Objects.hash(id), without boxing id into a varargs array
+        return 31 + Long.hashCode(id);
     }
 }
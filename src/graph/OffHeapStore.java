@@ -0,0 +1,75 @@
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/** An instance is a fixed-size, zero-initialised block of memory outside the Java heap,<br>
+ * addressed by long byte offsets. It is made of direct ByteBuffers of at most CHUNK<br>
+ * bytes each, so it can be larger than one ByteBuffer (2 GB) allows. The garbage<br>
+ * collector never scans its contents.
+ *
+ * Shorts and ints must be stored at offsets that are multiples of their size, so that<br>
+ * no value straddles two chunks. */
+/* package */ final class OffHeapStore {
+	/** log2 of the size of a chunk in bytes */
+	private static final int CHUNK_SHIFT= 30;
+
+	/** Size of a chunk in bytes */
+	private static final long CHUNK= 1L << CHUNK_SHIFT;
+
+	/** The chunks. Byte offset i is byte i % CHUNK of chunk i / CHUNK. */
+	private final ByteBuffer[] chunks;
+
+	/** Constructor: a block of size bytes, all 0. */
+	OffHeapStore(long size) {
+		int n= (int) ((size + CHUNK - 1) >>> CHUNK_SHIFT);
+		chunks= new ByteBuffer[Math.max(1, n)];
+		for (int k= 0; k < chunks.length; k++ ) {
+			chunks[k]= ByteBuffer.allocateDirect((int) chunkLength(size, k))
+				.order(ByteOrder.nativeOrder());
+		}
+	}
+
+	/** Return the length in bytes of chunk k of a block of size bytes: CHUNK for all <br>
+	 * but the last chunk, which has the rest. */
+	static long chunkLength(long size, int k) {
+		return Math.max(0, Math.min(CHUNK, size - ((long) k << CHUNK_SHIFT)));
+	}
+
+	/** Return the byte at offset i. */
+	byte getByte(long i) {
+		return chunks[(int) (i >>> CHUNK_SHIFT)].get((int) (i & CHUNK - 1));
+	}
+
+	/** Store b at offset i. */
+	void putByte(long i, byte b) {
+		chunks[(int) (i >>> CHUNK_SHIFT)].put((int) (i & CHUNK - 1), b);
+	}
+
+	/** Return the short at offset i. Precondition: i is even. */
+	short getShort(long i) {
+		return chunks[(int) (i >>> CHUNK_SHIFT)].getShort((int) (i & CHUNK - 1));
+	}
+
+	/** Store s at offset i. Precondition: i is even. */
+	void putShort(long i, short s) {
+		chunks[(int) (i >>> CHUNK_SHIFT)].putShort((int) (i & CHUNK - 1), s);
+	}
+
+	/** Return the int at offset i. Precondition: i is a multiple of 4. */
+	int getInt(long i) {
+		return chunks[(int) (i >>> CHUNK_SHIFT)].getInt((int) (i & CHUNK - 1));
+	}
+
+	/** Store x at offset i. Precondition: i is a multiple of 4. */
+	void putInt(long i, int x) {
+		chunks[(int) (i >>> CHUNK_SHIFT)].putInt((int) (i & CHUNK - 1), x);
+	}
+
+	/** Store x in the n ints at offsets 0, 4, ..., 4(n-1). */
+	void fillInts(long n, int x) {
+		for (long i= 0; i < n; i++ ) {
+			putInt(i << 2, x);
+		}
+	}
+}
@@ -31,4 +31,13 @@ public interface ScramState {
      * This value will change with every call to moveTo(Node),<br>
      * and if it reaches 0 before you get out, you have failed to get out. */
     int stepsToGo();
+
+    /** Return the coins left on node n: 0 if they have been picked up.<br>
+     * Read coins here, not from n.getTile(): the game records the coins<br>
+     * picked up itself, and leaves the tiles unchanged.<br>
+     * This default, for states that do not track coins, returns the coins<br>
+     * n's tile started with. */
+    default int coinsAt(Node n) {
+        return n.getTile().originalCoinValue();
+    }
 }
@@ -20,9 +20,28 @@ public interface SeekState {
      * (NB: This is NOT the distance in the graph, it is only the number<br>
      * of rows and columns away from the ring.)<br>
      * <br>
-     * It is possible to move directly to any node identifier in this collection. */
+     * It is possible to move directly to any node identifier in this collection.<br>
+     * The collection may be read-only and shared between calls. */
     Collection<NodeStatus> neighbors();
 
+    /** A consumer of the neighbors of McDiver's current location, <br>
+     * each given as its identifier and its distance to the ring along the grid */
+    @FunctionalInterface
+    interface NeighborConsumer {
+        /** Consume the neighbor with identifier id and grid distance distance to the ring. */
+        void accept(long id, int distance);
+    }
+
+    /** Call action.accept(id, distance) for each direct neighbor of McDiver's current <br>
+     * location, with the identifier and distance to the ring that neighbors() gives, <br>
+     * in the same order. Unlike neighbors(), implementations need not allocate: <br>
+     * this default one is there only for states that do not override it. */
+    default void forEachNeighbor(NeighborConsumer action) {
+        for (NodeStatus w : neighbors()) {
+            action.accept(w.getId(), w.getDistanceToRing());
+        }
+    }
+
     /** Return McDiver's current distance along the grid (NOT THE GRAPH) <br>
      * from the ring. */
     int distanceToRing();
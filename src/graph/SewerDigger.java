@@ -0,0 +1,121 @@
+package graph;
+
+import java.util.Random;
+
+/** The generator of the open tiles of a random sewer system, shared by Sewers and <br>
+ * LargeSewers, which keep their cells in different stores (see Cells). <br>
+ * Cells are identified by their index row * columns + column. Digging starts at an <br>
+ * entrance on the border and grows breadth-first over the cells off the border. <br>
+ * Random numbers are taken in the same order as always, so a seed always produces <br>
+ * the same sewer system, whichever class holds it. */
+/* package */ final class SewerDigger {
+	/** The probability that a newly seen cell is opened */
+	private static final double DENSITY= 0.6;
+
+	/** The values of Sewers.Direction */
+	private static final Sewers.Direction[] DIRECTIONS= Sewers.Direction.values();
+
+	/** The store of the cells being dug. A cell is seen once digging has considered <br>
+	 * opening it. The open cells, in the order they were opened, are the frontier of <br>
+	 * the breadth-first search, so each cell is opened at most once. */
+	/* package */ interface Cells {
+		/** Return true iff cell v is open. */
+		boolean isOpen(int v);
+
+		/** Mark cell v seen. Return false iff it was seen already. */
+		boolean markSeen(int v);
+
+		/** Open cell v with type t and append it to the open cells. <br>
+		 * A FLOOR cell takes its coins here, so coins are generated in the order <br>
+		 * cells are opened. */
+		void open(int v, Tile.TileType t);
+
+		/** Return the cell opened i-th, counting from 0. */
+		int opened(int i);
+
+		/** Change the type of the open cell v to t. */
+		void setType(int v, Tile.TileType t);
+	}
+
+	/** Constructor: not to be instantiated. */
+	private SewerDigger() {}
+
+	/** Dig a random sewer system of rws rows and cls columns into cells, using rand, <br>
+	 * and return the index of its target: the entrance if targetType is ENTRANCE, <br>
+	 * otherwise a random other open cell, which gets type targetType. <br>
+	 * The entrance is the first cell opened. */
+	/* package */ static int dig(int rws, int cls, Random rand, Tile.TileType targetType,
+		Cells cells) {
+		int head= 0, tail= 0;
+		int[] newExits= new int[DIRECTIONS.length];
+
+		int entrance= entrancePoint(rws, cls, rand);
+		cells.markSeen(entrance);
+		cells.open(entrance, Tile.TileType.ENTRANCE);
+		tail++ ;
+		while (head < tail) {
+			int p= cells.opened(head++ );
+			int row= p / cls, col= p % cls;
+
+			// We want to make sure there's a way out if we can get one.
+			// This will prevent stupid degenerate graphs.
+			int existingExits= 0;
+			int nExits= 0;
+			for (Sewers.Direction dir : DIRECTIONS) {
+				int r= row + dir.row(), c= col + dir.column();
+				if (0 < r && r < rws - 1 && 0 < c && c < cls - 1) {
+					int q= r * cls + c;
+					if (cells.isOpen(q)) {
+						existingExits++ ;
+					} else if (cells.markSeen(q)) {
+						newExits[nExits++ ]= q;
+					}
+				}
+			}
+
+			if (nExits > 0) {
+				double modifiedDensity;
+				int forcedExit;
+				// Modify the density function so that the expected number of open exits
+				// is the same even though we're forcing something to be open.
+				if (existingExits < 2) {
+					modifiedDensity= nExits == 1 ? 0.0 : (nExits * DENSITY - 1) / (nExits - 1);
+					forcedExit= newExits[rand.nextInt(nExits)];
+				} else {
+					modifiedDensity= DENSITY;
+					forcedExit= -1;
+				}
+				for (int k= 0; k < nExits; k++ ) {
+					int q= newExits[k];
+					if (q == forcedExit || rand.nextDouble() < modifiedDensity) {
+						cells.open(q, Tile.TileType.FLOOR);
+						tail++ ;
+					}
+				}
+			}
+		}
+
+		if (targetType == Tile.TileType.ENTRANCE) return entrance;
+		// Grab a random tile that's not the entrance and make it the ring.
+		int target= cells.opened(rand.nextInt(tail - 1) + 1);
+		cells.setType(target, targetType);
+		return target;
+	}
+
+	/** Return the index of a randomly chosen entrance to a sewer system of rws rows <br>
+	 * and cls columns (the only non-wall tile along an edge of the grid), using rand. */
+	private static int entrancePoint(int rws, int cls, Random rand) {
+		switch (rand.nextInt(4)) {
+		case 0: // North wall
+			return (rand.nextInt(rws - 2) + 1) * cls;
+		case 1: // South wall
+			return (rand.nextInt(rws - 2) + 1) * cls + cls - 1;
+		case 2: // West wall
+			return rand.nextInt(cls - 2) + 1;
+		case 3: // East wall
+			return (rws - 1) * cls + rand.nextInt(cls - 2) + 1;
+		default:
+			throw new IllegalStateException("Unexpected random value!");
+		}
+	}
+}
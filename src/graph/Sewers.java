@@ -1,19 +1,26 @@
 package graph;
 
-import java.util.ArrayDeque;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
-import java.util.function.Supplier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /** An instance is a Sewers through which a sewer diver can move.<br>
  * It's a grid of Tile objects with a weighted graph of all non-floor tiles.
@@ -22,7 +29,6 @@ import java.util.stream.Stream;
  * (which may also be the entrance). */
 public class Sewers {
 	public static final int MAX_EDGE_WEIGHT= 15;
-	private static final double DENSITY= 0.6;
 	private static final double COIN_PROBABILITY= 0.33;
 	public static final int MAX_COIN_VALUE= 1000;
 	public static final int TASTY_VALUE= 5000;
@@ -31,49 +37,38 @@ public class Sewers {
 	public enum Direction {
 		NORTH(-1, 0), EAST(0, 1), SOUTH(1, 0), WEST(0, -1);
 
-		private final Point dir;
+		/** The change in row and in column when moving in this direction */
+		private final int dRow, dCol;
 
 		/** Constructor: an instance with direction (row, col). */
 		Direction(int row, int col) {
-			dir= new Point(row, col);
+			dRow= row;
+			dCol= col;
 		}
 
-		/** Return the direction of this instance */
-		public Point direction() {
-			return dir;
-		}
-	}
-
-	/** An instance represents a point on the grid. */
-	private static final class Point {
-		/** The row and column of the point */
-		private final int row, col;
-
-		/** Constructor: an instance for (r, c). */
-		private Point(int r, int c) {
-			row= r;
-			col= c;
+		/** Return the change in row when moving in this direction. */
+		public int row() {
+			return dRow;
 		}
 
-		/** Return a new point that is this point with p added to it. */
-		public Point add(Point p) {
-			return new Point(row + p.row, col + p.col);
+		/** Return the change in column when moving in this direction. */
+		public int column() {
+			return dCol;
 		}
 
-		/** Return true iff ob is a Point and with same row and col of this one. */
-		@Override
-		public boolean equals(Object ob) {
-			if (!(ob instanceof Point)) return false;
-			Point p= (Point) ob;
-			return p.row == row && p.col == col;
-		}
-
-		@Override
-		public int hashCode() {
-			return Objects.hash(row, col);
+		/** Return the direction that changes the row by dRow and the column by dCol,<br>
+		 * or null if there is no such direction. */
+		public static Direction of(int dRow, int dCol) {
+			for (Direction d : DIRECTIONS) {
+				if (d.dRow == dRow && d.dCol == dCol) return d;
+			}
+			return null;
 		}
 	}
 
+	/** The values of Direction, without the copy that Direction.values() makes */
+	private static final Direction[] DIRECTIONS= Direction.values();
+
 	/** Number of ros and columns */
 	private final int rows, cols;
 
@@ -86,22 +81,42 @@ public class Sewers {
 	/** Grid of tiles */
 	private final Node[][] tiles;
 
+	/** The tile types and coins of the cells, of which the Tiles of the nodes are views. <br>
+	 * A game does not take coins here but in its own array (see GameState.coinsAt), <br>
+	 * so games can share a Sewers. */
+	private final TileGrid grid;
+
+	/** The CSR view of the graph, created on first use by csr() */
+	private volatile CsrGraph csr;
+
+	/** ringDistances[v] is the shortest distance from index v of csr() to the ring. <br>
+	 * It is created on first use by ringDistances() */
+	private volatile int[] ringDistances;
+
+	/** neighborStatus.get(v) is the read-only list of statuses of the neighbors of <br>
+	 * index v of csr(). It is created on first use by neighborStatus(Node) */
+	private volatile List<List<NodeStatus>> neighborStatus;
+
 	/** Return a new random sewer system with r rows, c columns, and no coins,<br>
 	 * all edges have weight 1, and there is a ring a reasonable distance from the exit.<br>
 	 * rand is the source of randomness for the sewer-system generation. */
 	public static Sewers digExploreSewer(int r, int c, Random rand) {
+		GameEvents.Generation event= generationEvent();
 		int minRingDist= minRingDistance(r, c);
 
 		Sewers sewers= new Sewers(r, c, rand, () -> 1, () -> 0, Tile.TileType.RING);
+		int candidates= 1;
 		while (sewers.minPathLengthToRing(sewers.entrance()) < minRingDist) {
 			sewers= new Sewers(r, c, rand, () -> 1, () -> 0, Tile.TileType.RING);
+			candidates++ ;
 		}
+		commit(event, "explore", r, c, candidates, false);
 		return sewers;
 	}
 
 	/** Return the minimum allowable path distance from the entrance to the ring.<br>
 	 * The graph has r rows and c columns */
-	private static int minRingDistance(int r, int c) {
+	/* package */ static int minRingDistance(int r, int c) {
 		return (r + c) / 2;
 	}
 
@@ -111,20 +126,122 @@ public class Sewers {
 	 * rand is the source of randomness to use for the sewer-system generation. */
 	public static Sewers digGetOutSewer(int r, int c, int currentRow, int currentCol,
 		Random rand) {
-		Supplier<Integer> edgeWeightGen= () -> rand.nextInt(MAX_EDGE_WEIGHT) + 1;
-		Supplier<Integer> coinGen= () -> Sewers.randomCoinValue(rand);
-		Sewers potentialCavern= new Sewers(r, c, rand, edgeWeightGen, coinGen,
-			Tile.TileType.ENTRANCE);
-		while (potentialCavern.tileAt(currentRow, currentCol).type() != Tile.TileType.FLOOR) {
-			potentialCavern= new Sewers(r, c, rand, edgeWeightGen, coinGen,
-				Tile.TileType.ENTRANCE);
+		GameEvents.Generation event= generationEvent();
+		Sewers potentialCavern= getOutCandidate(r, c, rand);
+		int candidates= 1;
+		while (potentialCavern.typeAt(currentRow, currentCol) != Tile.TileType.FLOOR) {
+			potentialCavern= getOutCandidate(r, c, rand);
+			candidates++ ;
 		}
+		commit(event, "get-out", r, c, candidates, false);
 		return potentialCavern;
 	}
 
+	/** Return a new, begun event for the generation of a sewer system. */
+	private static GameEvents.Generation generationEvent() {
+		GameEvents.Generation event= new GameEvents.Generation();
+		event.begin();
+		return event;
+	}
+
+	/** End event and, if the recording wants it, fill it in and commit it. */
+	private static void commit(GameEvents.Generation event, String kind, int r, int c,
+		int candidates, boolean speculative) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.kind= kind;
+			event.rows= r;
+			event.columns= c;
+			event.candidates= candidates;
+			event.speculative= speculative;
+			event.commit();
+		}
+	}
+
+	/** Return a candidate for digGetOutSewer with r rows and c columns, <br>
+	 * using rand for the layout, the edge weights and the coins. */
+	private static Sewers getOutCandidate(int r, int c, Random rand) {
+		return new Sewers(r, c, rand, () -> rand.nextInt(MAX_EDGE_WEIGHT) + 1,
+			() -> Sewers.randomCoinValue(rand), Tile.TileType.ENTRANCE);
+	}
+
+	/** Same as digExploreSewer(r, c, rand), but candidates are generated <br>
+	 * concurrently on pool (see digSpeculatively). <br>
+	 * This takes exactly one long from rand. The result depends only on that long, <br>
+	 * not on pool, but it is not the sewer system digExploreSewer(r, c, rand) returns. */
+	public static Sewers digExploreSewer(int r, int c, Random rand, ForkJoinPool pool) {
+		GameEvents.Generation event= generationEvent();
+		int minRingDist= minRingDistance(r, c);
+		int[] candidates= new int[1];
+		Sewers sewers= digSpeculatively(rand.nextLong(), pool,
+			(cr) -> new Sewers(r, c, cr, () -> 1, () -> 0, Tile.TileType.RING),
+			(s) -> s.minPathLengthToRing(s.entrance()) >= minRingDist, candidates);
+		commit(event, "explore", r, c, candidates[0], true);
+		return sewers;
+	}
+
+	/** Same as digGetOutSewer(r, c, currentRow, currentCol, rand), but candidates are <br>
+	 * generated concurrently on pool (see digSpeculatively). <br>
+	 * This takes exactly one long from rand. The result depends only on that long, <br>
+	 * not on pool, but it is not the sewer system digGetOutSewer returns for rand. */
+	public static Sewers digGetOutSewer(int r, int c, int currentRow, int currentCol,
+		Random rand, ForkJoinPool pool) {
+		GameEvents.Generation event= generationEvent();
+		int[] candidates= new int[1];
+		Sewers sewers= digSpeculatively(rand.nextLong(), pool, (cr) -> getOutCandidate(r, c, cr),
+			(s) -> s.typeAt(currentRow, currentCol) == Tile.TileType.FLOOR, candidates);
+		commit(event, "get-out", r, c, candidates[0], true);
+		return sewers;
+	}
+
+	/** Return the first candidate k = 0, 1, 2, ... that satisfies accept, where <br>
+	 * candidate k is dig applied to new Random(candidateSeed(base, k)).<br>
+	 * The rejection loops of digExploreSewer and digGetOutSewer cannot be run in <br>
+	 * parallel because each candidate continues the random sequence of the one before.<br>
+	 * Here every candidate has its own seed, so batches of pool.getParallelism() <br>
+	 * candidates are generated and tested at once. Results are examined in order of k, <br>
+	 * so the result depends only on base, not on the pool or on timing. It is not the <br>
+	 * sewer system the sequential overloads return for the same Random, whose <br>
+	 * candidates come from one random sequence. <br>
+	 * Store in count[0] the number of candidates examined: k + 1. */
+	private static Sewers digSpeculatively(long base, ForkJoinPool pool,
+		Function<Random, Sewers> dig, Predicate<Sewers> accept, int[] count) {
+		int batch= Math.max(1, pool.getParallelism());
+		List<ForkJoinTask<Sewers>> tasks= new ArrayList<>(batch);
+		for (int first= 0;; first+= batch) {
+			tasks.clear();
+			for (int k= first; k < first + batch; k++ ) {
+				long seed= candidateSeed(base, k);
+				tasks.add(pool.submit(() -> {
+					Sewers candidate= dig.apply(new Random(seed));
+					return accept.test(candidate) ? candidate : null;
+				}));
+			}
+			for (int i= 0; i < tasks.size(); i++ ) {
+				Sewers candidate= tasks.get(i).join();
+				if (candidate != null) {
+					for (int j= i + 1; j < tasks.size(); j++ ) {
+						tasks.get(j).cancel(false);
+					}
+					count[0]= first + i + 1;
+					return candidate;
+				}
+			}
+		}
+	}
+
+	/** Return the seed of candidate k in digSpeculatively with base seed base. <br>
+	 * This is the SplitMix64 finalizer, so nearby k give unrelated seeds. */
+	private static long candidateSeed(long base, int k) {
+		long z= base + (k + 1) * 0x9E3779B97F4A7C15L;
+		z= (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+		z= (z ^ z >>> 27) * 0x94D049BB133111EBL;
+		return z ^ z >>> 31;
+	}
+
 	/** Return a randomly determined gold value (to place on a tile).<br>
 	 * Use rand as the source of randomness. */
-	private static int randomCoinValue(Random rand) {
+	/* package */ static int randomCoinValue(Random rand) {
 		if (rand.nextDouble() > COIN_PROBABILITY) { return 0; }
 
 		int val= rand.nextInt(MAX_COIN_VALUE) + 1;
@@ -140,31 +257,33 @@ public class Sewers {
 	 * generate edge weights and coin values. <br>
 	 * Precondition: targetType is either Tile.TileType.RING or Tile.TileType.ENTRANCE. */
 	private Sewers(int rws, int cls, Random rand,
-		Supplier<Integer> edgeWeightGenerator,
-		Supplier<Integer> coinGenerator,
+		IntSupplier edgeWeightGenerator,
+		IntSupplier coinGenerator,
 		Tile.TileType targetType) {
 		rows= rws;
 		cols= cls;
 
-		graph= generateGraph(rand, targetType, coinGenerator);
-		entrance= graph.stream().filter((n) -> n.getTile().type() == Tile.TileType.ENTRANCE)
-			.findAny().get();
-		ring= graph.stream().filter((n) -> n.getTile().type() == targetType).findAny().get();
-
 		// Set tiles for the floor and then add walls wherever floor is missing.
 		tiles= new Node[rows][cols];
-		for (Node node : graph) {
-			Tile t= node.getTile();
-			tiles[t.row()][t.column()]= node;
+		grid= new TileGrid(rows, cols);
+		Node[] nodes= generateGraph(rand, targetType, coinGenerator);
+		entrance= nodes[0];
+		Node trgt= entrance;
+		for (Node node : nodes) {
+			if (node.getTile().type() == targetType) trgt= node;
 		}
+		ring= trgt;
+		graph= Collections.unmodifiableSet(new HashSet<>(Arrays.asList(nodes)));
+
 		for (int i= 0; i < rows; i++ ) {
 			for (int j= 0; j < cols; j++ ) {
 				if (tiles[i][j] == null) {
-					tiles[i][j]= new Node(new Tile(i, j, 0, Tile.TileType.WALL), cols);
+					tiles[i][j]= Node.wall(grid, i, j);
 				}
 			}
 		}
 		createEdges(tiles, edgeWeightGenerator);
+		adoptNodes();
 	}
 
 	/** Constructor; a graph constructed from givenGraph and tiles givenTiles, <br>
@@ -173,133 +292,118 @@ public class Sewers {
 	 * 1. givenGraph and givenTiles represent the same graph <br>
 	 * .. (i.e. givenGraph contains all non-floor nodes in givenTiles<br>
 	 * .. and edges are along the grid). <br>
-	 * 2. trgt is a node in givenGraph. */
-	private Sewers(Set<Node> givenGraph, Node[][] givenTiles, Node trgt) {
+	 * 2. trgt is a node in givenGraph. <br>
+	 * 3. givenGrid has the size of givenTiles, and the tiles of givenTiles are <br>
+	 * .. views of it. */
+	/* package */ Sewers(Set<Node> givenGraph, Node[][] givenTiles, Node trgt, TileGrid givenGrid) {
 		tiles= givenTiles;
 		rows= tiles.length;
 		cols= tiles[0].length;
+		grid= givenGrid;
 
 		graph= Collections.unmodifiableSet(givenGraph);
 		entrance= graph.stream().filter((n) -> n.getTile().type() == Tile.TileType.ENTRANCE)
 			.findAny().get();
 		ring= trgt;
+		adoptNodes();
+	}
+
+	/** Record in every node of tiles that it belongs to this sewer system. <br>
+	 * This freezes the nodes' edges and types, so it must come last in construction. */
+	private void adoptNodes() {
+		for (int r= 0; r < rows; r++ ) {
+			for (int c= 0; c < cols; c++ ) {
+				tiles[r][c].setSewers(this);
+			}
+		}
 	}
 
 	/** Given tiles without edges and a supplier to return edge weights, add <br>
 	 * edges to the nodes between adjacent non-wall tiles. <br>
 	 * Precondition: all elements of tiles are non-null. */
-	private void createEdges(Node[][] tiles, Supplier<Integer> edgeWeightGenerator) {
+	private void createEdges(Node[][] tiles, IntSupplier edgeWeightGenerator) {
 		for (int i= 0; i < tiles.length - 1; i++ ) {
 			for (int j= 0; j < tiles[i].length - 1; j++ ) {
 				Node node= tiles[i][j];
 				if (node.getTile().type() == Tile.TileType.WALL) {
 					continue;
 				}
-
-				final Point p= new Point(i, j);
-				Stream.of(Direction.SOUTH, Direction.EAST)
-					.map(Direction::direction)
-					.map(p::add)
-					.map((q) -> tiles[q.row][q.col])
-					.filter((m) -> m.getTile().type() != Tile.TileType.WALL)
-					.forEach((m) -> {
-						int weight= edgeWeightGenerator.get();
-						node.addEdge(new Edge(node, m, weight));
-						m.addEdge(new Edge(m, node, weight));
-					});
+				// South first, then east
+				addEdges(node, tiles[i + 1][j], edgeWeightGenerator);
+				addEdges(node, tiles[i][j + 1], edgeWeightGenerator);
 			}
 		}
 	}
 
-	/** Return true iff p is on the grid. */
-	private boolean isValid(Point p) {
-		return 0 < p.row && p.row < rows - 1 &&
-			0 < p.col && p.col < cols - 1;
+	/** If m is not a wall, add edges between node and m in both directions, <br>
+	 * with a weight taken from edgeWeightGenerator. */
+	private static void addEdges(Node node, Node m, IntSupplier edgeWeightGenerator) {
+		if (m.getTile().type() == Tile.TileType.WALL) return;
+		int weight= edgeWeightGenerator.getAsInt();
+		node.addEdge(new Edge(node, m, weight));
+		m.addEdge(new Edge(m, node, weight));
 	}
 
-	/** Generate a new random graph that fits within the grid and return the set of nodes. */
-	private Set<Node> generateGraph(Random rand,
+	/** Generate a new random graph that fits within the grid, put its nodes in tiles, <br>
+	 * and return its nodes in the order they were created (the entrance first). <br>
+	 * See SewerDigger.dig. */
+	private Node[] generateGraph(Random rand,
 		Tile.TileType targetType,
-		Supplier<Integer> coinGenerator) {
-		List<Node> nodes= new ArrayList<>();
-
-		Set<Point> pointsSeen= new HashSet<>();
-		Set<Point> openPoints= new HashSet<>();
-		Queue<Node> frontier= new ArrayDeque<>();
-
-		Point entrancePoint= getEntrancePoint(rand);
-		Node entrance= new Node(new Tile(entrancePoint.row,
-			entrancePoint.col, 0, Tile.TileType.ENTRANCE), cols);
-		nodes.add(entrance);
-
-		pointsSeen.add(entrancePoint);
-		openPoints.add(entrancePoint);
-		frontier.add(entrance);
-		while (!frontier.isEmpty()) {
-			Node node= frontier.remove();
-			Point p= new Point(node.getTile().row(), node.getTile().column());
-
-			// We want to make sure there's a way out if we can get one.
-			// This will prevent stupid degenerate graphs.
-			int existingExits= 0;
-			List<Point> newExits= new ArrayList<>();
-			for (Direction dir : Direction.values()) {
-				Point newPt= dir.direction().add(p);
-				if (isValid(newPt)) {
-					if (openPoints.contains(newPt)) {
-						existingExits++ ;
-					} else if (pointsSeen.add(newPt)) {
-						newExits.add(newPt);
-					}
-				}
-			}
+		IntSupplier coinGenerator) {
+		Digging digging= new Digging(coinGenerator);
+		SewerDigger.dig(rows, cols, rand, targetType, digging);
+		return Arrays.copyOf(digging.nodes, digging.nodeCount);
+	}
 
-			int nExits= newExits.size();
-			if (nExits > 0) {
-				double modifiedDensity;
-				Point forcedExit;
-				// Modify the density function so that the expected number of open exits
-				// is the same even though we're forcing something to be open.
-				if (existingExits < 2) {
-					modifiedDensity= nExits == 1 ? 0.0 : (nExits * DENSITY - 1) / (nExits - 1);
-					forcedExit= newExits.get(rand.nextInt(newExits.size()));
-				} else {
-					modifiedDensity= DENSITY;
-					forcedExit= null;
-				}
-				newExits.stream()
-					.filter((q) -> q.equals(forcedExit) || rand.nextDouble() < modifiedDensity)
-					.peek(openPoints::add)
-					.map((q) -> new Node(
-						new Tile(q.row, q.col, coinGenerator.get(), Tile.TileType.FLOOR), cols))
-					.peek(frontier::add)
-					.forEach(nodes::add);
-			}
+	/** The cells of this sewer system while it is dug: the seen and open sets are <br>
+	 * bitsets over the indices, and an open cell gets a Node in tiles and in nodes. */
+	private final class Digging implements SewerDigger.Cells {
+		/** The generator of the coins of FLOOR tiles */
+		private final IntSupplier coinGenerator;
+
+		/** The nodes of the open cells are nodes[0..nodeCount-1], in the order <br>
+		 * they were opened */
+		private final Node[] nodes= new Node[rows * cols];
+		private int nodeCount;
+
+		/** Bit v is set iff cell v has been seen / is open */
+		private final long[] seen= new long[(rows * cols + 63) >>> 6];
+		private final long[] open= new long[(rows * cols + 63) >>> 6];
+
+		/** Constructor: cells whose FLOOR tiles take coins from coinGenerator. */
+		private Digging(IntSupplier coinGenerator) {
+			this.coinGenerator= coinGenerator;
 		}
 
-		if (targetType != Tile.TileType.ENTRANCE) {
-			// Grab a random tile that's not the entrance and make it the ring.
-			int targetIdx= rand.nextInt(nodes.size() - 1) + 1;
-			nodes.get(targetIdx).getTile().setType(targetType);
+		@Override
+		public boolean isOpen(int v) {
+			return (open[v >>> 6] & 1L << v) != 0;
 		}
 
-		return Collections.unmodifiableSet(new HashSet<>(nodes));
-	}
+		@Override
+		public boolean markSeen(int v) {
+			if ((seen[v >>> 6] & 1L << v) != 0) return false;
+			seen[v >>> 6]|= 1L << v;
+			return true;
+		}
+
+		@Override
+		public void open(int v, Tile.TileType t) {
+			open[v >>> 6]|= 1L << v;
+			int cv= t == Tile.TileType.FLOOR ? coinGenerator.getAsInt() : 0;
+			Node node= new Node(new Tile(grid, v / cols, v % cols, cv, t), cols);
+			tiles[v / cols][v % cols]= node;
+			nodes[nodeCount++ ]= node;
+		}
 
-	/** Return a randomly chosen entrance to the sewer system <br>
-	 * (the only non-wall tile along an edge of the grid), using rand. */
-	private Point getEntrancePoint(Random rand) {
-		switch (rand.nextInt(4)) {
-		case 0: // North wall
-			return new Point(rand.nextInt(rows - 2) + 1, 0);
-		case 1: // South wall
-			return new Point(rand.nextInt(rows - 2) + 1, cols - 1);
-		case 2: // West wall
-			return new Point(0, rand.nextInt(cols - 2) + 1);
-		case 3: // East wall
-			return new Point(rows - 1, rand.nextInt(cols - 2) + 1);
-		default:
-			throw new IllegalStateException("Unexpected random value!");
+		@Override
+		public int opened(int i) {
+			return nodes[i].getTile().index();
+		}
+
+		@Override
+		public void setType(int v, Tile.TileType t) {
+			tiles[v / cols][v % cols].getTile().setType(t);
 		}
 	}
 
@@ -340,48 +444,150 @@ public class Sewers {
 		return tiles[r][c].getTile();
 	}
 
+	/** Return the type of tile (r, c). Precondition: (r, c) is in the grid. */
+	public Tile.TileType typeAt(int r, int c) {
+		return typeAt(r * cols + c);
+	}
+
+	/** Return the coins on tile (r, c): 0 if they have been taken. <br>
+	 * Precondition: (r, c) is in the grid. */
+	public int coinsAt(int r, int c) {
+		return coinsAt(r * cols + c);
+	}
+
+	/** Return the type of the tile with index v. */
+	/* package */ Tile.TileType typeAt(int v) {
+		return grid.typeAt(v);
+	}
+
+	/** Return the coins on the tile with index v: 0 if they have been taken. */
+	/* package */ int coinsAt(int v) {
+		return grid.coinsAt(v);
+	}
+
+	/** Return a new array whose element v is the coins on the tile with index v. */
+	/* package */ int[] coinsByIndex() {
+		int[] coins= new int[rows * cols];
+		for (int v= 0; v < coins.length; v++ ) {
+			coins[v]= grid.coinsAt(v);
+		}
+		return coins;
+	}
+
 	/** Return the node at the given (r, c). <br>
 	 * Precondition: (r, c) must be in the grid. */
 	public Node nodeAt(int r, int c) {
 		return tiles[r][c];
 	}
 
+	/** Return the frozen compressed-sparse-row view of this sewer system's graph. <br>
+	 * It is created on the first call and shared by all later calls. */
+	public CsrGraph csr() {
+		CsrGraph g= csr;
+		if (g == null) {
+			synchronized (this) {
+				g= csr;
+				if (g == null) {
+					g= new CsrGraph(tiles);
+					csr= g;
+				}
+			}
+		}
+		return g;
+	}
+
+	/** Return the distance field of the ring: element v is the shortest distance <br>
+	 * from index v of csr() to the ring (ShortestPaths.UNREACHED if there is no path).<br>
+	 * Edges are undirected, so a single search from the ring computes it: a bit-parallel <br>
+	 * breadth-first search (GridBitboard) if all edges have length 1 and there are at most <br>
+	 * 64 columns, Dial's otherwise. <br>
+	 * It is created on the first call and shared by all later calls. */
+	private int[] ringDistances() {
+		int[] d= ringDistances;
+		if (d == null) {
+			synchronized (this) {
+				d= ringDistances;
+				if (d == null) {
+					CsrGraph g= csr();
+					// Explore sewers have only edges of length 1: search them level by level.
+					// With more than one word per row, the carries between words make a
+					// level cost more than Dial's search of a maze-like sewer system does.
+					GridBitboard b= GridBitboard.of(g);
+					d= b != null && b.words() == 1 ? b.distances(g.index(ring))
+						: ShortestPaths.searchAll(g, g.index(ring)).distances();
+					ringDistances= d;
+				}
+			}
+		}
+		return d;
+	}
+
+	/** Return the length of a shortest path from node n to the ring, <br>
+	 * or ShortestPaths.UNREACHED if there is none (e.g. n is a wall). <br>
+	 * This takes constant time after the first call on this sewer system. <br>
+	 * Precondition: n is a node of this sewer system. */
+	public int distanceToRing(Node n) {
+		return ringDistances()[csr().index(n)];
+	}
+
+	/** Return the statuses of the neighbors of node n, in the order of n.neighbors(): <br>
+	 * their IDs and their distances to the ring along the grid. The list is read-only <br>
+	 * and shared by all calls; the lists of all nodes are created on the first call. <br>
+	 * Precondition: n is a node of this sewer system. */
+	/* package */ List<NodeStatus> neighborStatus(Node n) {
+		List<List<NodeStatus>> s= neighborStatus;
+		if (s == null) {
+			synchronized (this) {
+				s= neighborStatus;
+				if (s == null) {
+					s= neighborStatuses();
+					neighborStatus= s;
+				}
+			}
+		}
+		return s.get(csr().index(n));
+	}
+
+	/** Return the list whose element v is the read-only list of statuses of the <br>
+	 * neighbors of index v of csr(). */
+	private List<List<NodeStatus>> neighborStatuses() {
+		Tile ringTile= ring.getTile();
+		List<List<NodeStatus>> s= new ArrayList<>(rows * cols);
+		for (int r= 0; r < rows; r++ ) {
+			for (int c= 0; c < cols; c++ ) {
+				Set<Node> neighbors= tiles[r][c].neighbors();
+				NodeStatus[] status= new NodeStatus[neighbors.size()];
+				int k= 0;
+				for (Node m : neighbors) {
+					Tile t= m.getTile();
+					status[k]= new NodeStatus(m.getId(),
+						Math.abs(t.row() - ringTile.row()) + Math.abs(t.column() - ringTile.column()));
+					k++ ;
+				}
+				s.add(Collections.unmodifiableList(Arrays.asList(status)));
+			}
+		}
+		return s;
+	}
+
 	/** Package-private implementation of Dijkstra's algorithm<br>
 	 * It returns the shortest distance from node start to ring node. <br>
 	 * Precondition: start must be a node of the graph. */
 	int minPathLengthToRing(Node start) {
-
-		/** The frontier set, as a min-heap. */
-		InternalMinHeap<Node> F= new InternalMinHeap<>();
-		F.add(start, 0);
-
-		/** Contains an entry for each element of the settled and frontier sets.<br>
-		 * The keys are the Ids of nodes, the values are the corresponding <br>
-		 * distances from node start to this node, using only settled nodes except for the last,
-		 * which is in the frontier set. */
-		Map<Long, Integer> SFmap= new HashMap<>();
-		SFmap.put(start.getId(), 0);
-
-		while (F.size() > 0) {
-			Node f= F.poll();
-			if (f.equals(ring)) { return SFmap.get(f.getId()); }
-
-			int fDist= SFmap.get(f.getId());
-			for (Edge e : f.exits()) {
-				Node w= e.getOther(f);
-				Long wId= w.getId();
-				Integer wDist= SFmap.get(wId);
-				int wDistNew= fDist + e.length();
-				if (wDist == null) {
-					SFmap.put(wId, wDistNew);
-					F.add(w, wDistNew);
-				} else if (wDistNew < wDist) {
-					SFmap.put(wId, wDistNew);
-					F.changePriority(w, wDistNew);
-				}
-			}
+		GameEvents.RingDistance event= new GameEvents.RingDistance();
+		event.begin();
+		boolean cached= ringDistances != null;
+		int dist= distanceToRing(start);
+		if (dist == ShortestPaths.UNREACHED) {
+			throw new IllegalStateException("The search should always reach the desired location.");
+		}
+		event.end();
+		if (event.shouldCommit()) {
+			event.distance= dist;
+			event.cached= cached;
+			event.commit();
 		}
-		throw new IllegalStateException("The above loop should always reach the desired location.");
+		return dist;
 	}
 
 	/** Serialize this sewer system to a list of strings that can be written out to a file. <br>
@@ -392,7 +598,7 @@ public class Sewers {
 		for (Node n : graph) {
 			Tile t= n.getTile();
 			String nodeStr= n.getId() + "," + t.row() + "," + t.column() +
-				"," + t.coins() + "," + t.type().name();
+				"," + coinsAt(t.index()) + "," + t.type().name();
 
 			String edges= n.exits().stream()
 				.map((e) -> e.getOther(n).getId() + "-" + e.length())
@@ -412,6 +618,7 @@ public class Sewers {
 		int cols= Integer.parseInt(dimensions[1]);
 		long targetId= Long.parseLong(infoParts[1].split(":")[1]);
 
+		TileGrid grid= new TileGrid(rows, cols);
 		Map<Long, Node> idToNode= new HashMap<>();
 		for (String nodeStr : nodeStrList) {
 			if (nodeStr.equals(extraInfo)) {
@@ -423,7 +630,7 @@ public class Sewers {
 
 			long nodeId= Long.parseLong(splitInfo[0]);
 			Node n= new Node(nodeId,
-				new Tile(Integer.parseInt(splitInfo[1]),
+				new Tile(grid, Integer.parseInt(splitInfo[1]),
 					Integer.parseInt(splitInfo[2]),
 					Integer.parseInt(splitInfo[3]),
 					Tile.TileType.valueOf(splitInfo[4])));
@@ -453,10 +660,55 @@ public class Sewers {
 		for (int i= 0; i < rows; i++ ) {
 			for (int j= 0; j < cols; j++ ) {
 				if (tiles[i][j] == null) {
-					tiles[i][j]= new Node(new Tile(i, j, 0, Tile.TileType.WALL), cols);
+					tiles[i][j]= Node.wall(grid, i, j);
 				}
 			}
 		}
-		return new Sewers(new HashSet<>(idToNode.values()), tiles, idToNode.get(targetId));
+		return new Sewers(new HashSet<>(idToNode.values()), tiles, idToNode.get(targetId), grid);
+	}
+
+	/** Read a sewer system in the text format of serialize() from channel ch, <br>
+	 * one line per node, in a single pass (see TextSewerReader). <br>
+	 * The result is the same as deserialize() of the lines. <br>
+	 * Throw an IOException if the data is not in that format. <br>
+	 * Throw an IllegalArgumentException if ch is a non-blocking SelectableChannel. */
+	public static Sewers readText(ReadableByteChannel ch) throws IOException {
+		return TextSewerReader.read(ch);
+	}
+
+	/** Read a sewer system in the text format of serialize() from the file at path p. */
+	public static Sewers readText(Path p) throws IOException {
+		try (FileChannel ch= FileChannel.open(p, StandardOpenOption.READ)) {
+			return readText(ch);
+		}
+	}
+
+	/** Write this sewer system to channel ch in the compact binary format <br>
+	 * described in BinarySewerFormat. It can be read back with readBinary(). <br>
+	 * Throw an IllegalArgumentException if an edge weight is not in 1..15. */
+	public void writeBinary(WritableByteChannel ch) throws IOException {
+		BinarySewerFormat.write(this, ch);
+	}
+
+	/** Write this sewer system to the file at path p in the compact binary format, <br>
+	 * replacing the file if it exists. */
+	public void writeBinary(Path p) throws IOException {
+		try (FileChannel ch= FileChannel.open(p, StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeBinary(ch);
+		}
+	}
+
+	/** Read a sewer system written by writeBinary() from channel ch, up to its end. <br>
+	 * Throw an IOException if the data is not in the binary format. */
+	public static Sewers readBinary(ReadableByteChannel ch) throws IOException {
+		return BinarySewerFormat.read(ch);
+	}
+
+	/** Read a sewer system written by writeBinary() from the file at path p. */
+	public static Sewers readBinary(Path p) throws IOException {
+		try (FileChannel ch= FileChannel.open(p, StandardOpenOption.READ)) {
+			return readBinary(ch);
+		}
 	}
 }
@@ -0,0 +1,235 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/** An instance is the result of a single-source shortest-path search over a CsrGraph.
+ *
+ * Edge weights in a sewer system are small positive integers (at most<br>
+ * Sewers.MAX_EDGE_WEIGHT), so the search uses Dial's algorithm: a circular array of<br>
+ * MAX_EDGE_WEIGHT + 1 buckets, where bucket d % BUCKETS holds the frontier nodes at<br>
+ * distance d. Each node is settled in O(1), so a search takes O(V + E) time.<br>
+ * If a graph has a heavier edge, the search falls back to a binary heap (IntIndexedMinHeap).
+ *
+ * Like the heap-based searches it replaces, a node's backpointer changes only when<br>
+ * a strictly shorter path to it is found. */
+public final class ShortestPaths {
+	/** Number of buckets. Every frontier distance lies in d..d+MAX_EDGE_WEIGHT, <br>
+	 * where d is the distance of the node being settled, so they never collide. */
+	private static final int BUCKETS= Sewers.MAX_EDGE_WEIGHT + 1;
+
+	/** Distance meaning "not reached" */
+	public static final int UNREACHED= Integer.MAX_VALUE;
+
+	/** The graph that was searched */
+	private final CsrGraph g;
+
+	/** The index the search started from */
+	private final int source;
+
+	/** dist[v] is the length of the shortest known path from source to v <br>
+	 * (UNREACHED if v was not reached). */
+	private final int[] dist;
+
+	/** pred[v] is the index before v on that path (-1 for source and unreached v). */
+	private final int[] pred;
+
+	/** Number of indices settled, and number of pushes, removals and priority <br>
+	 * changes on the queue, by the search */
+	private int settled, queueOperations;
+
+	/** Constructor: search g from index src until index trgt is settled, <br>
+	 * or until all reachable indices are settled if trgt is -1. */
+	private ShortestPaths(CsrGraph graph, int src, int trgt) {
+		g= graph;
+		source= src;
+		dist= new int[g.size()];
+		pred= new int[g.size()];
+		Arrays.fill(dist, UNREACHED);
+		Arrays.fill(pred, -1);
+		dist[src]= 0;
+		if (g.maxWeight() < BUCKETS) {
+			searchBuckets(trgt);
+		} else {
+			searchHeap(trgt);
+		}
+	}
+
+	/** Return the result of searching g from index source until index target<br>
+	 * is settled. If target is -1, all indices reachable from source are settled. */
+	public static ShortestPaths search(CsrGraph g, int source, int target) {
+		return new ShortestPaths(g, source, target);
+	}
+
+	/** Return the result of searching g from index source until all indices <br>
+	 * reachable from source are settled. */
+	public static ShortestPaths searchAll(CsrGraph g, int source) {
+		return new ShortestPaths(g, source, -1);
+	}
+
+	/** Return the shortest path from node v to node end, v and end included, <br>
+	 * ---or the empty list if a path does not exist. <br>
+	 * Precondition: v and end belong to the same sewer system. */
+	public static List<Node> path(Node v, Node end) {
+		ShortestPaths sp= search(v, end);
+		return sp.pathTo(sp.graph().index(end));
+	}
+
+	/** Return the result of searching the sewer system of node v from v until <br>
+	 * all nodes reachable from v are settled. */
+	public static ShortestPaths searchAll(Node v) {
+		CsrGraph g= v.sewers().csr();
+		return searchAll(g, g.index(v));
+	}
+
+	/** Return the result of searching the sewer system of node v from v until <br>
+	 * node end is settled. Precondition: v and end belong to the same sewer system. */
+	public static ShortestPaths search(Node v, Node end) {
+		CsrGraph g= v.sewers().csr();
+		return search(g, g.index(v), g.index(end));
+	}
+
+	/** Settle nodes using Dial's bucket queue until trgt is settled <br>
+	 * (or until the frontier is empty). */
+	private void searchBuckets(int trgt) {
+		// Bucket b is a doubly linked list of indices, threaded through next and prev
+		int[] head= new int[BUCKETS];
+		Arrays.fill(head, -1);
+		int[] next= new int[g.size()];
+		int[] prev= new int[g.size()];
+
+		push(source, 0, head, next, prev);
+		queueOperations++ ;
+		int frontierSize= 1;
+		int d= 0;
+		while (frontierSize > 0) {
+			while (head[d % BUCKETS] == -1) d++ ;
+			int f= head[d % BUCKETS];
+			unlink(f, d, head, next, prev);
+			frontierSize-- ;
+			settled++ ;
+			queueOperations++ ;
+			if (f == trgt) return;
+
+			for (int e= g.firstEdge(f), end= g.endEdge(f); e < end; e++ ) {
+				int w= g.target(e);
+				int wDistNew= d + g.weight(e);
+				if (wDistNew < dist[w]) {
+					if (dist[w] == UNREACHED) {
+						frontierSize++ ;
+					} else {
+						unlink(w, dist[w], head, next, prev);
+					}
+					dist[w]= wDistNew;
+					pred[w]= f;
+					push(w, wDistNew, head, next, prev);
+					queueOperations++ ;
+				}
+			}
+		}
+	}
+
+	/** Add index v to the front of the bucket for distance d. */
+	private static void push(int v, int d, int[] head, int[] next, int[] prev) {
+		int b= d % BUCKETS;
+		next[v]= head[b];
+		prev[v]= -1;
+		if (head[b] != -1) prev[head[b]]= v;
+		head[b]= v;
+	}
+
+	/** Remove index v from the bucket for distance d. <br>
+	 * Precondition: v is in that bucket. */
+	private static void unlink(int v, int d, int[] head, int[] next, int[] prev) {
+		if (prev[v] != -1) {
+			next[prev[v]]= next[v];
+		} else {
+			head[d % BUCKETS]= next[v];
+		}
+		if (next[v] != -1) prev[next[v]]= prev[v];
+	}
+
+	/** Settle nodes using a binary heap until trgt is settled <br>
+	 * (or until the frontier is empty). Used when an edge is too heavy for the buckets. */
+	private void searchHeap(int trgt) {
+		IntIndexedMinHeap F= new IntIndexedMinHeap(g.size());
+		F.add(source, 0);
+		queueOperations++ ;
+		while (F.size() > 0) {
+			int f= F.poll();
+			settled++ ;
+			queueOperations++ ;
+			if (f == trgt) return;
+
+			int fDist= dist[f];
+			for (int e= g.firstEdge(f), end= g.endEdge(f); e < end; e++ ) {
+				int w= g.target(e);
+				int wDistNew= fDist + g.weight(e);
+				if (dist[w] == UNREACHED) {
+					dist[w]= wDistNew;
+					pred[w]= f;
+					F.add(w, wDistNew);
+					queueOperations++ ;
+				} else if (wDistNew < dist[w]) {
+					dist[w]= wDistNew;
+					pred[w]= f;
+					F.changePriority(w, wDistNew);
+					queueOperations++ ;
+				}
+			}
+		}
+	}
+
+	/** Return the graph that was searched. */
+	public CsrGraph graph() {
+		return g;
+	}
+
+	/** Return the number of indices the search settled, the target included. */
+	public int settled() {
+		return settled;
+	}
+
+	/** Return the number of operations on the priority queue during the search: <br>
+	 * adding an index, removing one, and changing the distance of one. */
+	public int queueOperations() {
+		return queueOperations;
+	}
+
+	/** Return the index the search started from. */
+	public int source() {
+		return source;
+	}
+
+	/** Return the length of the shortest path found from source to index v, <br>
+	 * UNREACHED if v was not reached. <br>
+	 * The value is final for v = the target and all nodes settled before it. */
+	public int distance(int v) {
+		return dist[v];
+	}
+
+	/** Return the array of distances from the source, indexed like graph(). <br>
+	 * It is not copied, so the caller must not change it. */
+	/* package */ int[] distances() {
+		return dist;
+	}
+
+	/** Return the index before v on the shortest path found to v <br>
+	 * (-1 if v is the source or was not reached). */
+	public int predecessor(int v) {
+		return pred[v];
+	}
+
+	/** Return the nodes on the shortest path found from source to index v, <br>
+	 * both included ---or the empty list if v was not reached. */
+	public List<Node> pathTo(int v) {
+		List<Node> path= new LinkedList<>();
+		if (dist[v] == UNREACHED) return path;
+		// invariant: All the nodes from p's successor to v are in path
+		for (int p= v; p != -1; p= pred[p]) {
+			path.add(0, g.node(p));
+		}
+		return path;
+	}
+}
@@ -0,0 +1,229 @@
+package graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/** An instance reads a sewer system in the text format of Sewers.serialize() <br>
+ * from a channel in a single pass, without materialising lines or Strings.
+ *
+ * Bytes are parsed straight from a fixed-size buffer. Nodes are kept in an array<br>
+ * indexed by their dense id (row * columns + column). Because an edge may name a<br>
+ * node that appears later in the input, edges are recorded in int arrays and added<br>
+ * once all nodes are known, in input order, so Node.exits() order matches<br>
+ * Sewers.deserialize(). */
+/* package */ final class TextSewerReader {
+	/** Size of the read buffer in bytes */
+	private static final int BUFFER_SIZE= 1 << 16;
+
+	/** Marks the end of the input in peek() */
+	private static final int EOF= -1;
+
+	/** The channel being read */
+	private final ReadableByteChannel ch;
+
+	/** Bytes read from ch but not yet parsed are buf[position..limit-1] */
+	private final ByteBuffer buf= ByteBuffer.allocate(BUFFER_SIZE);
+
+	/** The line being parsed, for error messages */
+	private int line= 1;
+
+	/** Pending edges: edge k goes from node edgeSrc[k] to node edgeDst[k] <br>
+	 * with length edgeLen[k], for k in 0..edgeCount-1. */
+	private int[] edgeSrc= new int[256], edgeDst= new int[256], edgeLen= new int[256];
+	private int edgeCount;
+
+	/** The tile types, and for each whether it can still match the name being read */
+	private final Tile.TileType[] types= Tile.TileType.values();
+	private final boolean[] possible= new boolean[types.length];
+
+	/** Constructor: a reader of channel c. */
+	private TextSewerReader(ReadableByteChannel c) {
+		ch= c;
+		buf.flip();
+	}
+
+	/** Read a sewer system in the format of Sewers.serialize() from ch, up to its end. <br>
+	 * Throw an IOException if the input is not in that format. <br>
+	 * Throw an IllegalArgumentException if ch is a SelectableChannel in non-blocking <br>
+	 * mode: peek() waits for input by reading again, which would spin on such a channel. */
+	static Sewers read(ReadableByteChannel ch) throws IOException {
+		if (ch instanceof SelectableChannel && !((SelectableChannel) ch).isBlocking()) {
+			throw new IllegalArgumentException("read: the channel must be in blocking mode");
+		}
+		return new TextSewerReader(ch).read();
+	}
+
+	/** Parse the whole input and return the sewer system it describes. */
+	private Sewers read() throws IOException {
+		int rows= readInt();
+		expect(':');
+		int cols= readInt();
+		expect(',');
+		for (int i= 0; i < "trgt".length(); i++ ) {
+			expect("trgt".charAt(i));
+		}
+		expect(':');
+		long targetId= readLong();
+		endLine();
+		if (rows <= 0 || cols <= 0) throw error("the grid must not be empty");
+
+		Node[] nodes= new Node[rows * cols];
+		TileGrid grid= new TileGrid(rows, cols);
+		// The open nodes in input order. The set is built from the whole list at the
+		// end, as deserialize() does, so that graph() iterates in the same order.
+		List<Node> open= new ArrayList<>();
+		while (peek() != EOF) {
+			int id= checkId(readLong(), nodes.length);
+			expect(',');
+			int row= readInt();
+			expect(',');
+			int col= readInt();
+			expect(',');
+			int coins= readInt();
+			expect(',');
+			Tile.TileType type= readType();
+			expect('=');
+			if (nodes[id] != null) throw error("node " + id + " appears twice");
+			if (row >= rows || col >= cols) throw error("tile is outside the grid");
+			nodes[id]= new Node(id, new Tile(grid, row, col, coins, type));
+			open.add(nodes[id]);
+
+			while (peek() != '\n' && peek() != '\r' && peek() != EOF) {
+				int other= checkId(readLong(), nodes.length);
+				expect('-');
+				addPendingEdge(id, other, readInt());
+				if (peek() == ',') next();
+			}
+			endLine();
+		}
+
+		for (int k= 0; k < edgeCount; k++ ) {
+			Node n= nodes[edgeSrc[k]];
+			Node m= nodes[edgeDst[k]];
+			if (m == null) throw new IOException("read: edge to missing node " + edgeDst[k]);
+			n.addEdge(new Edge(n, m, edgeLen[k]));
+		}
+
+		int target= checkId(targetId, nodes.length);
+		if (nodes[target] == null) throw new IOException("read: the ring is not a node");
+
+		Node[][] tiles= new Node[rows][cols];
+		for (Node n : nodes) {
+			if (n != null) tiles[n.getTile().row()][n.getTile().column()]= n;
+		}
+		for (int i= 0; i < rows; i++ ) {
+			for (int j= 0; j < cols; j++ ) {
+				if (tiles[i][j] == null) {
+					tiles[i][j]= Node.wall(grid, i, j);
+				}
+			}
+		}
+		return new Sewers(new HashSet<>(open), tiles, nodes[target], grid);
+	}
+
+	/** Record an edge from node src to node dst with length len. */
+	private void addPendingEdge(int src, int dst, int len) {
+		if (edgeCount == edgeSrc.length) {
+			edgeSrc= Arrays.copyOf(edgeSrc, 2 * edgeCount);
+			edgeDst= Arrays.copyOf(edgeDst, 2 * edgeCount);
+			edgeLen= Arrays.copyOf(edgeLen, 2 * edgeCount);
+		}
+		edgeSrc[edgeCount]= src;
+		edgeDst[edgeCount]= dst;
+		edgeLen[edgeCount]= len;
+		edgeCount++ ;
+	}
+
+	/** Return id as an index into an array of n nodes. <br>
+	 * Throw an IOException if it is not in 0..n-1. */
+	private int checkId(long id, int n) throws IOException {
+		if (id < 0 || id >= n) throw error("node id " + id + " is not in 0.." + (n - 1));
+		return (int) id;
+	}
+
+	/** Read the name of a TileType and return the TileType. */
+	private Tile.TileType readType() throws IOException {
+		// Compare the input against all names at once
+		Arrays.fill(possible, true);
+		int len= 0;
+		for (int b= peek(); 'A' <= b && b <= 'Z'; b= peek()) {
+			next();
+			for (int k= 0; k < types.length; k++ ) {
+				String name= types[k].name();
+				possible[k]= possible[k] && len < name.length() && name.charAt(len) == b;
+			}
+			len++ ;
+		}
+		for (int k= 0; k < types.length; k++ ) {
+			if (possible[k] && types[k].name().length() == len) return types[k];
+		}
+		throw error("unknown tile type");
+	}
+
+	/** Read a non-negative decimal int and return it. */
+	private int readInt() throws IOException {
+		long v= readLong();
+		if (v > Integer.MAX_VALUE) throw error("number too large");
+		return (int) v;
+	}
+
+	/** Read a non-negative decimal long and return it. */
+	private long readLong() throws IOException {
+		int b= peek();
+		if (b < '0' || b > '9') throw error("expected a digit");
+		long v= 0;
+		do {
+			next();
+			if (v > (Long.MAX_VALUE - (b - '0')) / 10) throw error("number too large");
+			v= 10 * v + (b - '0');
+			b= peek();
+		} while ('0' <= b && b <= '9');
+		return v;
+	}
+
+	/** Consume the end of a line ("\n" or "\r\n"), or do nothing at the end of the input. */
+	private void endLine() throws IOException {
+		if (peek() == '\r') next();
+		if (peek() == EOF) return;
+		expect('\n');
+		line++ ;
+	}
+
+	/** Consume character c. Throw an IOException if the next character is not c. */
+	private void expect(char c) throws IOException {
+		if (peek() != c) throw error("expected '" + c + "'");
+		next();
+	}
+
+	/** Return the next byte of the input without consuming it (EOF at the end). <br>
+	 * ch is blocking (see read(ReadableByteChannel)), so a read waits for at least <br>
+	 * one byte or the end of the input instead of returning 0 again and again. */
+	private int peek() throws IOException {
+		if (!buf.hasRemaining()) {
+			buf.clear();
+			int n;
+			do {
+				n= ch.read(buf);
+			} while (n == 0);
+			buf.flip();
+			if (n < 0) return EOF;
+		}
+		return buf.get(buf.position());
+	}
+
+	/** Consume the next byte. Precondition: peek() was just called and was not EOF. */
+	private void next() {
+		buf.position(buf.position() + 1);
+	}
+
+	/** Return an IOException saying the input is malformed at the current line. */
+	private IOException error(String msg) {
+		return new IOException("read: line " + line + ": " + msg);
+	}
+}
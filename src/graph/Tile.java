@@ -22,32 +22,35 @@ public class Tile {
 	/** The row and column position of the GameNode */
 	private final int row, col;
 
-	/** Value of coins on this Node */
-	private final int coinValue;
+	/** This Tile is a view of cell index of grid, the TileGrid of its Sewers, <br>
+	 * which holds its type and coins. */
+	private final TileGrid grid;
+	private final int index;
 
-	/** The Type of Tile this Node has */
-	private TileType tileType;
-
-	/** True iff the coins on this Tile have been piceked up */
-	private boolean coinsPickedUp;
-
-	/** Constructor: an instance with row r, column c, coin-value cv, and Type t. */
-	public Tile(int r, int c, int cv, TileType t) {
+	/** Constructor: a view of cell (r, c) of grid g, which gets coin-value cv and Type t. <br>
+	 * Precondition: (r, c) is in g. */
+	/* package */ Tile(TileGrid g, int r, int c, int cv, TileType t) {
 		row= r;
 		col= c;
-		coinValue= cv;
-		tileType= t;
-		coinsPickedUp= false;
+		grid= g;
+		index= r * g.columnCount() + c;
+		grid.setCoins(index, cv);
+		grid.setType(index, t);
 	}
 
-	/** Return the value of coins on this Tile. */
+	/** Return the coins this Tile started with. <br>
+	 * A game does not take coins from its tiles, so this is not the coins left on <br>
+	 * the tile during a game: use ScramState.coinsAt(n) for those. <br>
+	 * @deprecated use originalCoinValue() for the coins the tile started with, <br>
+	 * or ScramState.coinsAt(n) for the coins left on node n in a game. */
+	@Deprecated
 	public int coins() {
-		return coinsPickedUp ? 0 : coinValue;
+		return grid.coinsAt(index);
 	}
 
 	/** Return the original amount of coins on this tile. */
 	public int originalCoinValue() {
-		return coinValue;
+		return grid.originalCoinsAt(index);
 	}
 
 	/** Return the row of this Tile. */
@@ -62,18 +65,24 @@ public class Tile {
 
 	/** Return the TileType of this Tile. */
 	public TileType type() {
-		return tileType;
+		return grid.typeAt(index);
 	}
 
-	/** Set the TileType of this Tile to t. */
+	/** Set the TileType of this Tile to t. <br>
+	 * Precondition: no Sewers has adopted the node of this Tile. */
 	/* package */ void setType(TileType t) {
-		tileType= t;
+		grid.setType(index, t);
+	}
+
+	/** Return the index of this Tile in its TileGrid: row * columns + column. */
+	/* package */ int index() {
+		return index;
 	}
 
-	/** Set the value of coins on this Node to 0 and return the amount "taken" */
-	public int takeCoins() {
-		int result= coins();
-		coinsPickedUp= true;
-		return result;
+	/** Set the value of coins on this Node to 0 and return the amount "taken". <br>
+	 * A game does not call this: it records the coins picked up itself, so that <br>
+	 * games can share a sewer system. */
+	/* package */ int takeCoins() {
+		return grid.takeCoins(index);
 	}
 }
@@ -0,0 +1,76 @@
+package graph;
+
+/** An instance holds the tile types and coins of a grid of rows x columns cells, <br>
+ * by index row * columns + column, in arrays, so that loops over the grid read <br>
+ * contiguous memory. A Tile is a view of one cell of a TileGrid, and a Sewers keeps <br>
+ * the TileGrid of all its tiles: <br>
+ * 1. types[v] is 0 for a WALL and t.ordinal() + 1 for an open type t (as in LargeSewers). <br>
+ * 2. coinValues[v] is the number of coins the cell started with. <br>
+ * 3. Bit v % 64 of coinsTaken[v / 64] is 1 iff the coins of cell v have been taken <br>
+ * .. with Tile.takeCoins(). <br>
+ * A new grid is all walls without coins. */
+/* package */ final class TileGrid {
+	/** The tile types. The code of an open type t in types is t.ordinal() + 1 */
+	private static final Tile.TileType[] TYPES= Tile.TileType.values();
+
+	/** Number of rows and columns */
+	private final int rows, cols;
+
+	/** Types, coins, and coins taken of the cells (see the class specification) */
+	private final byte[] types;
+	private final int[] coinValues;
+	private final long[] coinsTaken;
+
+	/** Constructor: a grid of rws rows and cls columns of walls without coins. */
+	/* package */ TileGrid(int rws, int cls) {
+		rows= rws;
+		cols= cls;
+		types= new byte[rows * cols];
+		coinValues= new int[rows * cols];
+		coinsTaken= new long[(rows * cols + 63) >>> 6];
+	}
+
+	/** Return the number of rows. */
+	/* package */ int rowCount() {
+		return rows;
+	}
+
+	/** Return the number of columns. */
+	/* package */ int columnCount() {
+		return cols;
+	}
+
+	/** Return the type of the cell with index v. */
+	/* package */ Tile.TileType typeAt(int v) {
+		int code= types[v];
+		return code == 0 ? Tile.TileType.WALL : TYPES[code - 1];
+	}
+
+	/** Set the type of the cell with index v to t. */
+	/* package */ void setType(int v, Tile.TileType t) {
+		types[v]= t == Tile.TileType.WALL ? 0 : (byte) (t.ordinal() + 1);
+	}
+
+	/** Return the coins on the cell with index v: 0 if they have been taken. */
+	/* package */ int coinsAt(int v) {
+		return (coinsTaken[v >>> 6] & 1L << v) != 0 ? 0 : coinValues[v];
+	}
+
+	/** Return the coins the cell with index v started with. */
+	/* package */ int originalCoinsAt(int v) {
+		return coinValues[v];
+	}
+
+	/** Set the coins the cell with index v starts with to cv. */
+	/* package */ void setCoins(int v, int cv) {
+		coinValues[v]= cv;
+	}
+
+	/** Take the coins on the cell with index v and return how many there were <br>
+	 * (0 if they had already been taken). */
+	/* package */ int takeCoins(int v) {
+		int result= coinsAt(v);
+		coinsTaken[v >>> 6]|= 1L << v;
+		return result;
+	}
+}
@@ -0,0 +1,226 @@
+package graph;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import diver.McDiver;
+
+/** A tournament plays many headless games, each on its own seed, on a bounded pool<br>
+ * of threads, and summarises the results.
+ *
+ * Every game is isolated: it gets its own GameState, its own sewer systems built from<br>
+ * its seed, and a new SewerDiver, and it prints nothing. The result of a game depends<br>
+ * only on its seed, so a tournament gives the same results however many threads it<br>
+ * uses. The seeds are the ones GameState.main -s seed -n count plays one after another.
+ *
+ * The divers are McDivers. -seek and -scram choose their strategies (McDiver.Seek and<br>
+ * McDiver.Scram, by name; FRONTIER and ORIENTEERING by default), so that runs with<br>
+ * the same seeds compare strategies.
+ *
+ * Usage: Tournament [-n count] [-s seed] [-t threads] [-notimeout] [-o results.csv]<br>
+ * .. [-seek FRONTIER|DEPTH_FIRST] [-scram ORIENTEERING|GREEDY] */
+public final class Tournament {
+
+	private Tournament() {}
+
+	/** The result of one game */
+	public static final class Result {
+		/** The seed the game was played on */
+		public final long seed;
+		/** The score and the coins collected */
+		public final int score, coins;
+		/** Steps taken in the seek phase, and steps left when the scram phase ended */
+		public final int seekSteps, scramStepsToGo;
+		/** Whether each phase succeeded, threw an exception, or timed out */
+		public final boolean seekSucceeded, scramSucceeded, seekErred, scramErred,
+			seekTimedOut, scramTimedOut;
+
+		private Result(long seed, GameState g) {
+			this.seed= seed;
+			score= g.getScore();
+			coins= g.getCoinsCollected();
+			seekSteps= g.getSeekSteps();
+			scramStepsToGo= g.getScramSucceeded() ? g.getScramStepsToGo() : 0;
+			seekSucceeded= g.getSeekSucceeded();
+			scramSucceeded= g.getScramSucceeded();
+			seekErred= g.getSeekErrored();
+			scramErred= g.getScramErrored();
+			seekTimedOut= g.getSeekTimeout();
+			scramTimedOut= g.getScramTimeout();
+		}
+
+		/** Return the column names of toString(), separated by commas. */
+		public static String header() {
+			return "seed,score,coins,seekSteps,scramStepsToGo,seekSucceeded,scramSucceeded," +
+				"seekErred,scramErred,seekTimedOut,scramTimedOut";
+		}
+
+		/** Return this result as a line of comma-separated values. */
+		@Override
+		public String toString() {
+			return seed + "," + score + "," + coins + "," + seekSteps + "," + scramStepsToGo +
+				"," + seekSucceeded + "," + scramSucceeded + "," + seekErred + "," + scramErred +
+				"," + seekTimedOut + "," + scramTimedOut;
+		}
+	}
+
+	/** Return the count seeds GameState.main plays when it is given seed seed: <br>
+	 * seed itself, and then each one is the first nextLong() of a Random on the last. */
+	public static long[] seeds(long seed, int count) {
+		long[] seeds= new long[count];
+		for (int i= 0; i < count; i++ ) {
+			seeds[i]= seed;
+			seed= new Random(seed).nextLong();
+		}
+		return seeds;
+	}
+
+	/** Play a game on each seed of seeds with a diver from divers, using at most <br>
+	 * threads threads, and return the results in the order of seeds. <br>
+	 * If timeLimit is true, each phase of a game is cut off after its time-out <br>
+	 * as in GameState.runWithTimeLimit; otherwise games may run as long as they need. */
+	public static List<Result> play(long[] seeds, int threads, Supplier<? extends SewerDiver> divers,
+		boolean timeLimit) throws InterruptedException {
+		ExecutorService pool= Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Result>> futures= new ArrayList<>(seeds.length);
+			for (long seed : seeds) {
+				futures.add(pool.submit(() -> play(seed, divers.get(), timeLimit)));
+			}
+			List<Result> results= new ArrayList<>(seeds.length);
+			for (Future<Result> f : futures) {
+				try {
+					results.add(f.get());
+				} catch (ExecutionException e) {
+					// GameState catches what the diver throws, so this is a bug in the game.
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/** Play one quiet game on seed with sewerDiver sd and return its result. */
+	private static Result play(long seed, SewerDiver sd, boolean timeLimit) {
+		GameState g= new GameState(seed, false, sd);
+		g.setPrinting(false);
+		if (timeLimit) g.runWithTimeLimit();
+		else g.run();
+		return new Result(seed, g);
+	}
+
+	/** A summary of the results of a tournament */
+	public static final class Summary {
+		/** Number of games, and number in which seek or scram failed */
+		public final int games, seekFailures, scramFailures;
+		/** Number of games in which a phase threw an exception or timed out */
+		public final int errors, timeouts;
+		/** Mean score */
+		public final double mean;
+		/** Lowest, median, 10th-percentile, 90th-percentile, 99th-percentile and <br>
+		 * highest scores */
+		public final int min, p10, median, p90, p99, max;
+
+		/** Constructor: the summary of results. Precondition: results is not empty. */
+		public Summary(List<Result> results) {
+			games= results.size();
+			int[] scores= new int[games];
+			long sum= 0;
+			int sf= 0, cf= 0, er= 0, to= 0;
+			for (int i= 0; i < games; i++ ) {
+				Result r= results.get(i);
+				scores[i]= r.score;
+				sum= sum + r.score;
+				if (!r.seekSucceeded) sf++ ;
+				if (r.seekSucceeded && !r.scramSucceeded) cf++ ;
+				if (r.seekErred || r.scramErred) er++ ;
+				if (r.seekTimedOut || r.scramTimedOut) to++ ;
+			}
+			seekFailures= sf;
+			scramFailures= cf;
+			errors= er;
+			timeouts= to;
+			mean= (double) sum / games;
+			Arrays.sort(scores);
+			min= scores[0];
+			p10= percentile(scores, 10);
+			median= percentile(scores, 50);
+			p90= percentile(scores, 90);
+			p99= percentile(scores, 99);
+			max= scores[games - 1];
+		}
+
+		/** Return the p-th percentile of sorted, by the nearest-rank method. */
+		private static int percentile(int[] sorted, int p) {
+			int rank= (int) Math.ceil(p / 100.0 * sorted.length);
+			return sorted[Math.max(rank, 1) - 1];
+		}
+
+		@Override
+		public String toString() {
+			return "Games            : " + games + "\n" +
+				"Mean score       : " + String.format("%.2f", mean) + "\n" +
+				"Scores           : min " + min + ", p10 " + p10 + ", median " + median +
+				", p90 " + p90 + ", p99 " + p99 + ", max " + max + "\n" +
+				"Seek failures    : " + seekFailures + "\n" +
+				"Scram failures   : " + scramFailures + "\n" +
+				"Errors           : " + errors + "\n" +
+				"Timeouts         : " + timeouts;
+		}
+	}
+
+	public static void main(String[] args) throws InterruptedException, IOException {
+		List<String> argList= Arrays.asList(args);
+		int count= Math.max(1, Integer.parseInt(arg(argList, "-n", "1")));
+		String seedArg= arg(argList, "-s", null);
+		long seed= seedArg == null ? new Random().nextLong() : Long.parseLong(seedArg);
+		int threads= Math.max(1, Integer.parseInt(
+			arg(argList, "-t", "" + Runtime.getRuntime().availableProcessors())));
+		boolean timeLimit= !argList.contains("-notimeout");
+		String out= arg(argList, "-o", null);
+		McDiver.Seek seek= McDiver.Seek.valueOf(arg(argList, "-seek", "FRONTIER").toUpperCase());
+		McDiver.Scram scram= McDiver.Scram.valueOf(
+			arg(argList, "-scram", "ORIENTEERING").toUpperCase());
+
+		long start= System.nanoTime();
+		List<Result> results= play(seeds(seed, count), threads, () -> new McDiver(seek, scram),
+			timeLimit);
+		double seconds= (System.nanoTime() - start) / 1e9;
+
+		if (out != null) {
+			try (PrintWriter w= new PrintWriter(
+				Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8))) {
+				w.println(Result.header());
+				for (Result r : results) {
+					w.println(r);
+				}
+			}
+		}
+		System.out.println("First seed       : " + seed);
+		System.out.println("Threads          : " + threads);
+		System.out.println("Strategies       : " + seek + ", " + scram);
+		System.out.println(new Summary(results));
+		System.out.println(String.format("Time             : %.2f s (%.1f games/s)",
+			seconds, count / seconds));
+	}
+
+	/** Return the string following flag in args, or def if flag is not there. */
+	private static String arg(List<String> args, String flag, String def) {
+		int k= args.indexOf(flag);
+		return k < 0 || k + 1 >= args.size() ? def : args.get(k + 1);
+	}
+}
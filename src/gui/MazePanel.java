@@ -171,7 +171,7 @@ public class MazePanel extends JPanel {
 
 	/** Return an icon for the coins on tile n, or null if no coins. */
 	public BufferedImage getCoinsIcon(Node n) {
-		double cns= n.getTile().coins();
+		double cns= gui.gameState.coinsAt(n);
 		if (cns == Sewers.TASTY_VALUE) return tasty;
 		cns*= (double) COIN_SPRITES_PER_ROW * COIN_SPRITES_PER_COL / Sewers.MAX_COIN_VALUE;
 		int spriteIndex= (int) cns;
@@ -192,7 +192,8 @@ public class MazePanel extends JPanel {
 		// Draw the maze tiles
 		for (int row= 0; row < sewers.rowCount(); row++ ) {
 			for (int col= 0; col < sewers.columnCount(); col++ ) {
-				if (sewers.tileAt(row, col).type() == Tile.TileType.WALL) {
+				Tile.TileType type= sewers.typeAt(row, col);
+				if (type == Tile.TileType.WALL) {
 					page.drawImage(wall, TILE_WIDTH * col, TILE_HEIGHT * row,
 						TILE_WIDTH, TILE_HEIGHT, null);
 					continue;
@@ -207,13 +208,14 @@ public class MazePanel extends JPanel {
 						TILE_WIDTH, TILE_HEIGHT);
 				}
 				// If this is the ring-tile, draw the ring
-				if (sewers.tileAt(row, col).type() == Tile.TileType.RING) {
+				if (type == Tile.TileType.RING) {
 					page.drawImage(ring, TILE_WIDTH * col, TILE_HEIGHT * row,
 						TILE_WIDTH, TILE_HEIGHT, null);
 				}
 				// If there is a coin here, draw it
-				if (sewers.tileAt(row, col).coins() > 0) {
-					page.drawImage(getCoinsIcon(sewers.nodeAt(row, col)),
+				Node n= sewers.nodeAt(row, col);
+				if (gui.gameState.coinsAt(n) > 0) {
+					page.drawImage(getCoinsIcon(n),
 						TILE_WIDTH * col, TILE_HEIGHT * row,
 						TILE_WIDTH, TILE_HEIGHT, null);
 				}
@@ -225,7 +227,7 @@ public class MazePanel extends JPanel {
 	/** If tile (row, col) is the entrance/exit, draw the graphic for it. */
 	public void paintEntranceExit(Graphics page, int row, int col) {
 
-		if (sewers.tileAt(row, col).type() != Tile.TileType.ENTRANCE) return;
+		if (sewers.typeAt(row, col) != Tile.TileType.ENTRANCE) return;
 		if (gui.gameState.scramSucceeded()) {
 			page.drawImage(path, TILE_WIDTH * col, TILE_HEIGHT * row,
 				TILE_WIDTH, TILE_HEIGHT, null);
@@ -121,7 +121,7 @@ public class TileSelectPanel extends JPanel {
 			page.drawImage(pic, (int) (IMAGE_X * getWidth()), (int) (IMAGE_Y * getHeight()),
 				(int) (IMAGE_WIDTH * getWidth()), (int) (IMAGE_HEIGHT * getHeight()), null);
 			// Draw the coin image
-			if (selectedNode.getTile().coins() > 0) {
+			if (gui.gameState.coinsAt(selectedNode) > 0) {
 				BufferedImage coinPic= gui.getCoinIcon(selectedNode);
 				page.drawImage(coinPic, (int) (IMAGE_X * getWidth()), (int) (IMAGE_Y * getHeight()),
 					(int) (IMAGE_WIDTH * getWidth()), (int) (IMAGE_HEIGHT * getHeight()), null);
@@ -139,7 +139,7 @@ public class TileSelectPanel extends JPanel {
 			page.drawString(text, x, (int) (ROW_COL_Y * getHeight()));
 
 			// Draw the value of the coins and the ID
-			text= "value: " + selectedNode.getTile().coins();
+			text= "value: " + gui.gameState.coinsAt(selectedNode);
 			x= getTextXForCenter((Graphics2D) page, text, (int) (COIN_X * getWidth()),
 				(int) (COIN_WIDTH * getWidth()));
 			page.drawString(text, x, (int) (COIN_ID_Y * getHeight()));
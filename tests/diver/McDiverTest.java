@@ -0,0 +1,238 @@
+package diver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import graph.Node;
+import graph.NodeStatus;
+import graph.ScramState;
+import graph.SeekState;
+import graph.SewerDiver;
+import graph.Tournament;
+
+class McDiverTest {
+
+	/** A diver that seeks and scrams with the given strategies and records the ID of <br>
+	 * every node it moves to, in both phases. */
+	private static final class Recorder extends SewerDiver {
+		private final Consumer<SeekState> seek;
+		private final Consumer<ScramState> scram;
+		private final List<Long> moves= new ArrayList<>();
+
+		/** Constructor: a recorder that seeks with seek and scrams with scram. */
+		private Recorder(Consumer<SeekState> seek, Consumer<ScramState> scram) {
+			this.seek= seek;
+			this.scram= scram;
+		}
+
+		@Override
+		public void seek(SeekState state) {
+			seek.accept(new SeekState() {
+				@Override
+				public long currentLocation() {
+					return state.currentLocation();
+				}
+
+				@Override
+				public Collection<NodeStatus> neighbors() {
+					return state.neighbors();
+				}
+
+				@Override
+				public int distanceToRing() {
+					return state.distanceToRing();
+				}
+
+				@Override
+				public void moveTo(long id) {
+					moves.add(id);
+					state.moveTo(id);
+				}
+			});
+		}
+
+		@Override
+		public void scram(ScramState state) {
+			scram.accept(new ScramState() {
+				@Override
+				public Node currentNode() {
+					return state.currentNode();
+				}
+
+				@Override
+				public Node exit() {
+					return state.exit();
+				}
+
+				@Override
+				public Collection<Node> allNodes() {
+					return state.allNodes();
+				}
+
+				@Override
+				public void moveTo(Node n) {
+					moves.add(n.getId());
+					state.moveTo(n);
+				}
+
+				@Override
+				public int stepsToGo() {
+					return state.stepsToGo();
+				}
+
+				@Override
+				public int coinsAt(Node n) {
+					return state.coinsAt(n);
+				}
+			});
+		}
+	}
+
+	/** Return the moves of a game on seed by a diver that seeks with seek and scrams <br>
+	 * with scram. */
+	private static List<Long> moves(long seed, Consumer<SeekState> seek,
+		Consumer<ScramState> scram) throws InterruptedException {
+		Recorder r= new Recorder(seek, scram);
+		Tournament.play(new long[] { seed }, 1, () -> r, false);
+		return r.moves;
+	}
+
+	/** Walk the shortest path from where McDiver stands to the exit. */
+	private static void shortestScram(ScramState s) {
+		List<Node> path= A7.dijkstra(s.currentNode(), s.exit());
+		for (Node n : path.subList(1, path.size())) {
+			s.moveTo(n);
+		}
+	}
+
+	/** McDiver.mySeek2 as it was before it was made iterative: the reference <br>
+	 * for its moves. */
+	private static final class RecursiveSeek {
+		private final ArrayList<Long[]> visited= new ArrayList<>();
+
+		private void mySeek2(SeekState state, Long n) {
+			long currLoc= state.currentLocation();
+			int ringDis= state.distanceToRing();
+			int minDis= state.distanceToRing() + 2;
+			Long minVisited= 2 * n;
+			NodeStatus destination= null;
+			NodeStatus destinationVisited= null;
+			if (ringDis == 0) return;
+			int i= 0;
+			while (i < visited.size()) {
+				if (currLoc == visited.get(i)[0]) {
+					visited.remove(i);
+				} else {
+					i++ ;
+				}
+			}
+			visited.add(new Long[] { currLoc, n });
+			for (NodeStatus w : state.neighbors()) {
+				if (!visited(w.getId())) {
+					int wDis= w.getDistanceToRing();
+					if (wDis < minDis) {
+						minDis= wDis;
+						destination= w;
+					}
+				} else {
+					for (Long[] l : visited) {
+						if (l[0].equals(w.getId())) {
+							if (l[1] < minVisited) {
+								minVisited= l[1];
+								destinationVisited= w;
+							}
+							break;
+						}
+					}
+				}
+			}
+			NodeStatus next= destination != null ? destination : destinationVisited;
+			state.moveTo(next.getId());
+			mySeek2(state, n + 1);
+			if (state.distanceToRing() == 0) return;
+			state.moveTo(currLoc);
+		}
+
+		private boolean visited(long nodeId) {
+			for (Long[] id : visited) {
+				if (id[0] == nodeId) return true;
+			}
+			return false;
+		}
+	}
+
+	/** McDiver.scramFinal as it was before it searched once per choice, with two <br>
+	 * A7.dijkstra calls per node: the reference for its moves. */
+	private static final class DijkstraPerNodeScram {
+		private final ArrayList<Node> scramVisited= new ArrayList<>();
+
+		private void scramFinal(ScramState s) {
+			int stepsLeft= s.stepsToGo();
+			List<Node> pathToExit= A7.dijkstra(s.currentNode(), s.exit());
+			int currentNodeToExitSteps= A7.sumOfPath(pathToExit);
+			while (stepsLeft >= currentNodeToExitSteps) {
+				stepsLeft= s.stepsToGo();
+				double maxPoints= 0;
+				Node highestNode= null;
+				for (Node n : s.allNodes()) {
+					int tileValue= s.coinsAt(n);
+					double denom= Math.pow(A7.sumOfPath(A7.dijkstra(s.currentNode(), n)), 3) *
+						A7.sumOfPath(A7.dijkstra(n, s.exit()));
+					double curPoints= Math.pow(tileValue, 10) / denom;
+					if (curPoints > maxPoints && !scramVisited.contains(n)) {
+						scramVisited.add(n);
+						maxPoints= curPoints;
+						highestNode= n;
+					}
+				}
+				if (highestNode == null) break;
+				List<Node> pathToBestTile= A7.dijkstra(s.currentNode(), highestNode);
+				List<Node> pathFromBestTileToExit= A7.dijkstra(highestNode, s.exit());
+				int detour= A7.sumOfPath(pathToBestTile) + A7.sumOfPath(pathFromBestTileToExit);
+				if (stepsLeft <= detour) break;
+				pathToBestTile.remove(0);
+				for (Node w : pathToBestTile) {
+					s.moveTo(w);
+				}
+			}
+			pathToExit= A7.dijkstra(s.currentNode(), s.exit());
+			pathToExit.remove(0);
+			for (Node n : pathToExit) {
+				s.moveTo(n);
+				if (n.equals(s.exit())) return;
+			}
+		}
+	}
+
+	@Test
+	void iterativeSeekMakesTheMovesOfTheRecursiveOne() throws InterruptedException {
+		for (long seed= 1; seed <= 60; seed++ ) {
+			List<Long> expected= moves(seed,
+				(s) -> new RecursiveSeek().mySeek2(s, Long.valueOf(0)), McDiverTest::shortestScram);
+			List<Long> actual= moves(seed,
+				(s) -> new McDiver(McDiver.Seek.DEPTH_FIRST, McDiver.Scram.ORIENTEERING).seek(s), McDiverTest::shortestScram);
+			assertFalse(expected.isEmpty(), "seed " + seed);
+			assertEquals(expected, actual, "seed " + seed);
+		}
+	}
+
+	@Test
+	void greedyScramMakesTheMovesOfTheDijkstraPerNodeOne() throws InterruptedException {
+		McDiver seeker= new McDiver();
+		for (long seed= 1; seed <= 8; seed++ ) {
+			List<Long> expected= moves(seed, seeker::seek,
+				(s) -> new DijkstraPerNodeScram().scramFinal(s));
+			List<Long> actual= moves(seed, seeker::seek,
+				(s) -> new McDiver(McDiver.Seek.FRONTIER, McDiver.Scram.GREEDY).scram(s));
+			assertFalse(expected.isEmpty(), "seed " + seed);
+			assertEquals(expected, actual, "seed " + seed);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package diver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import graph.Node;
+import graph.Sewers;
+import graph.ShortestPaths;
+import graph.Tile;
+
+class OrienteeringSolverTest {
+
+	/** The scram phase of a 16 x 24 game: the sewer system, where the diver starts, <br>
+	 * and a step budget */
+	private static final class Scram {
+		private final Sewers sewers;
+		private final Node start;
+		private final int budget;
+
+		/** Constructor: the scram phase of the game on seed. */
+		private Scram(long seed) {
+			Random rand= new Random(seed);
+			Sewers seek= Sewers.digExploreSewer(16, 24, rand);
+			Tile ring= seek.ring().getTile();
+			sewers= Sewers.digGetOutSewer(16, 24, ring.row(), ring.column(), rand);
+			start= sewers.nodeAt(ring.row(), ring.column());
+			ShortestPaths sp= ShortestPaths.searchAll(start);
+			budget= sp.distance(sp.graph().index(sewers.ring())) + 2 * sewers.numOpenTiles();
+		}
+
+		/** Return a new solver for this scram. */
+		private OrienteeringSolver solver() {
+			return new OrienteeringSolver(start, sewers.ring(), sewers.graph(),
+				n -> n.getTile().originalCoinValue(), budget);
+		}
+	}
+
+	/** Return a deadline so far off that solve() never reaches it. */
+	private static long farDeadline() {
+		return System.nanoTime() + TimeUnit.MINUTES.toNanos(10);
+	}
+
+	@Test
+	void solveIsRepeatable() {
+		for (long seed= 0; seed < 10; seed++ ) {
+			OrienteeringSolver a= new Scram(seed).solver(), b= new Scram(seed).solver();
+			assertEquals(a.solve(farDeadline()), b.solve(farDeadline()));
+			assertEquals(a.plannedCoins(), b.plannedCoins());
+		}
+	}
+
+	@Test
+	void routeFitsTheBudgetAndEndsAtTheExit() {
+		for (long seed= 0; seed < 10; seed++ ) {
+			Scram g= new Scram(seed);
+			Node here= g.start;
+			OrienteeringSolver solver= g.solver();
+			List<Node> walk= solver.solve(farDeadline());
+			int steps= 0, coins= here.getTile().originalCoinValue();
+			Set<Node> visited= new HashSet<>();
+			visited.add(here);
+			for (Node n : walk) {
+				steps+= here.edge(n).length();
+				if (visited.add(n)) coins+= n.getTile().originalCoinValue();
+				here= n;
+			}
+			assertEquals(g.sewers.ring(), here);
+			assertTrue(steps <= g.budget, "steps " + steps + " > budget " + g.budget);
+			assertTrue(coins >= solver.plannedCoins(), "collects fewer coins than planned");
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package diver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import graph.Node;
+import graph.Sewers;
+import graph.Tile;
+
+class PriorityHeapTest {
+
+	/** The min-heap backends that HeapBenchmark compares */
+	private static final List<Supplier<PriorityHeap<Integer>>> BACKENDS= List.of(
+		() -> new Heap<>(true), DaryHeap::new, PairingHeap::new, RadixHeap::new);
+
+	/** Run a random Dijkstra-like workload on heap --priorities are integers, never <br>
+	 * below the last one polled, and only ever decrease-- and assert that every poll <br>
+	 * returns a value of least priority. */
+	private static void workload(PriorityHeap<Integer> heap) {
+		Random rand= new Random(11);
+		Map<Integer, Double> in= new HashMap<>();
+		double last= 0;
+		for (int op= 0; op < 20_000; op++ ) {
+			int v= rand.nextInt(300);
+			double p= last + rand.nextInt(16);
+			int choice= rand.nextInt(3);
+			if (choice == 0 && !in.containsKey(v)) {
+				heap.insert(v, p);
+				in.put(v, p);
+			} else if (choice == 1 && in.containsKey(v) && p < in.get(v)) {
+				heap.changePriority(v, p);
+				in.put(v, p);
+			} else if (choice == 2 && heap.size() > 0) {
+				double least= Collections.min(in.values());
+				int w= heap.poll();
+				last= in.remove(w);
+				assertEquals(least, last, heap.getClass().getSimpleName());
+			}
+			assertEquals(in.size(), heap.size());
+		}
+	}
+
+	@Test
+	void backendsPollAValueOfLeastPriority() {
+		for (Supplier<PriorityHeap<Integer>> backend : BACKENDS) {
+			workload(backend.get());
+		}
+	}
+
+	@Test
+	void bulkConstructorsHeapifyAllItems() {
+		Random rand= new Random(5);
+		Map<Integer, Double> items= new HashMap<>();
+		for (int v= 0; v < 1000; v++ ) {
+			items.put(v, (double) rand.nextInt(500));
+		}
+		List<PriorityHeap<Integer>> heaps= List.of(new DaryHeap<>(items), new Heap<>(true, items));
+		for (PriorityHeap<Integer> heap : heaps) {
+			assertEquals(items.size(), heap.size());
+			double last= Double.NEGATIVE_INFINITY;
+			while (heap.size() > 0) {
+				double p= items.get(heap.peek());
+				assertEquals(items.get(heap.poll()), p);
+				assertEquals(true, p >= last, heap.getClass().getSimpleName());
+				last= p;
+			}
+		}
+	}
+
+	@Test
+	void emptyHeapsThrow() {
+		for (Supplier<PriorityHeap<Integer>> backend : BACKENDS) {
+			PriorityHeap<Integer> heap= backend.get();
+			assertThrows(NoSuchElementException.class, heap::poll);
+			heap.insert(1, 2);
+			assertThrows(IllegalArgumentException.class, () -> heap.insert(1, 3));
+			assertThrows(IllegalArgumentException.class, () -> heap.changePriority(2, 3));
+		}
+	}
+
+	@Test
+	void dijkstraFindsPathsOfTheSameLengthWithEveryBackend() {
+		Random rand= new Random(8);
+		Sewers seek= Sewers.digExploreSewer(20, 30, rand);
+		Tile ring= seek.ring().getTile();
+		Sewers scram= Sewers.digGetOutSewer(20, 30, ring.row(), ring.column(), rand);
+		Node start= scram.nodeAt(ring.row(), ring.column());
+		for (Node end : scram.graph()) {
+			int expected= A7.sumOfPath(A7.dijkstra(start, end));
+			assertEquals(expected, A7.sumOfPath(A7.dijkstra(start, end, new DaryHeap<>())));
+			assertEquals(expected, A7.sumOfPath(A7.dijkstra(start, end, new PairingHeap<>())));
+			assertEquals(expected, A7.sumOfPath(A7.dijkstra(start, end, new RadixHeap<>())));
+		}
+	}
+}
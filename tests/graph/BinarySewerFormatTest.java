@@ -0,0 +1,86 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BinarySewerFormatTest {
+
+	/** Return s written by Sewers.writeBinary. */
+	private static byte[] write(Sewers s) throws IOException {
+		ByteArrayOutputStream out= new ByteArrayOutputStream();
+		s.writeBinary(Channels.newChannel(out));
+		return out.toByteArray();
+	}
+
+	/** Return the sewer system Sewers.readBinary reads from b. */
+	private static Sewers read(byte[] b) throws IOException {
+		return Sewers.readBinary(Channels.newChannel(new ByteArrayInputStream(b)));
+	}
+
+	@Test
+	void roundTripKeepsGeneratedSewers() throws IOException {
+		// 300 games cover the open-tile counts at which a HashSet resizes.
+		for (long seed= 0; seed < 300; seed++ ) {
+			for (Sewers s : SewersTesting.game(seed)) {
+				SewersTesting.assertSameSewers(s, read(write(s)));
+			}
+		}
+	}
+
+	@Test
+	void roundTripKeepsDeserializedSewers() throws IOException {
+		for (long seed= 0; seed < 20; seed++ ) {
+			Sewers s= Sewers.deserialize(SewersTesting.game(seed)[1].serialize());
+			SewersTesting.assertSameSewers(s, read(write(s)));
+		}
+	}
+
+	@Test
+	void writeIsStableAcrossRoundTrips() throws IOException {
+		byte[] b= write(SewersTesting.game(7)[1]);
+		assertArrayEquals(b, write(read(b)));
+	}
+
+	@Test
+	void version1IsReadInRowMajorOrder() throws IOException {
+		Sewers s= SewersTesting.game(5)[1];
+		byte[] b= write(s);
+		b[4]= 1; // The version. Version 1 has no order section, so the rest is ignored.
+		Sewers t= read(b);
+		List<Long> ids= SewersTesting.graphOrder(t);
+		List<Long> sorted= new ArrayList<>(ids);
+		Collections.sort(sorted);
+		assertEquals(sorted, ids);
+		assertEquals(s.numOpenTiles(), t.numOpenTiles());
+	}
+
+	@Test
+	void readRejectsVersion2() throws IOException {
+		byte[] b= write(SewersTesting.game(5)[1]);
+		b[4]= 2;
+		assertThrows(IOException.class, () -> read(b));
+	}
+
+	@Test
+	void readRejectsOtherData() {
+		assertThrows(IOException.class, () -> read("not a sewer".getBytes()));
+	}
+
+	@Test
+	void readRejectsTruncatedData() throws IOException {
+		byte[] b= write(SewersTesting.game(3)[0]);
+		assertThrows(IOException.class, () -> read(Arrays.copyOf(b, b.length / 2)));
+	}
+}
@@ -0,0 +1,46 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import diver.McDiver;
+
+class GameStateTest {
+
+	/** Play McDiver on seek and scram and return the score. */
+	private static int play(Sewers seek, Sewers scram) {
+		GameState g= new GameState(seek, scram, new McDiver());
+		g.run();
+		return g.getScore();
+	}
+
+	@Test
+	void gamesOnSharedSewersScoreTheSame() {
+		Sewers[] s= SewersTesting.game(42);
+		int first= play(s[0], s[1]);
+		assertEquals(first, play(s[0], s[1]));
+	}
+
+	@Test
+	void aGameLeavesTheCoinsOfItsSewersUnchanged() {
+		Sewers[] s= SewersTesting.game(7);
+		int[] before= s[1].coinsByIndex();
+		play(s[0], s[1]);
+		assertArrayEquals(before, s[1].coinsByIndex());
+	}
+
+	@Test
+	void coinsAtReadsTheGameNotTheTile() {
+		Sewers[] s= SewersTesting.game(7);
+		GameState g= new GameState(s[0], s[1], new McDiver());
+		g.run();
+		int left= 0, onTiles= 0;
+		for (Node n : s[1].graph()) {
+			left+= g.coinsAt(n);
+			onTiles+= n.getTile().originalCoinValue();
+		}
+		assertEquals(g.getCoinsCollected(), onTiles - left);
+	}
+}
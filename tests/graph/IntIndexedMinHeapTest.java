@@ -0,0 +1,63 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IntIndexedMinHeapTest {
+
+	/** Number of keys */
+	private static final int N= 200;
+
+	@Test
+	void pollsInTheOrderOfInternalMinHeap() {
+		Random rand= new Random(3);
+		IntIndexedMinHeap heap= new IntIndexedMinHeap(N);
+		InternalMinHeap<Integer> expected= new InternalMinHeap<>();
+		for (int op= 0; op < 20_000; op++ ) {
+			int v= rand.nextInt(N), p= rand.nextInt(20);
+			int choice= rand.nextInt(3);
+			if (choice == 0 && !heap.contains(v)) {
+				heap.add(v, p);
+				expected.add(v, p);
+			} else if (choice == 1 && heap.contains(v)) {
+				heap.changePriority(v, p);
+				expected.changePriority(v, p);
+				assertEquals(p, heap.priority(v));
+			} else if (choice == 2 && heap.size() > 0) {
+				assertEquals((int) expected.peek(), heap.peek());
+				assertEquals((int) expected.poll(), heap.poll());
+			}
+			assertEquals(expected.size(), heap.size());
+		}
+	}
+
+	@Test
+	void clearEmptiesTheHeapForReuse() {
+		IntIndexedMinHeap heap= new IntIndexedMinHeap(4);
+		heap.add(2, 5);
+		heap.add(0, 1);
+		heap.clear();
+		assertEquals(0, heap.size());
+		assertFalse(heap.contains(2));
+		heap.add(2, 7);
+		assertTrue(heap.contains(2));
+		assertEquals(2, heap.poll());
+	}
+
+	@Test
+	void misuseThrows() {
+		IntIndexedMinHeap heap= new IntIndexedMinHeap(4);
+		assertThrows(NoSuchElementException.class, heap::poll);
+		assertThrows(NoSuchElementException.class, heap::peek);
+		assertThrows(IllegalArgumentException.class, () -> heap.changePriority(1, 3));
+		heap.add(1, 3);
+		assertThrows(IllegalArgumentException.class, () -> heap.add(1, 4));
+	}
+}
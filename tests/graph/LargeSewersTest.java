@@ -0,0 +1,69 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class LargeSewersTest {
+
+	/** Assert that large is small cell for cell: types, coins, edges and distances <br>
+	 * to the ring. */
+	private static void assertSameGrid(Sewers small, LargeSewers large) {
+		assertEquals(small.numOpenTiles(), large.numOpenTiles(), "open tiles");
+		int cols= small.columnCount();
+		assertEquals(small.entrance().getId(), large.entrance(), "entrance");
+		assertEquals(small.ring().getId(), large.ring(), "ring");
+		for (int r= 0; r < small.rowCount(); r++ ) {
+			for (int c= 0; c < cols; c++ ) {
+				int v= large.index(r, c);
+				String at= "(" + r + ", " + c + ")";
+				assertEquals(r * cols + c, v, "index of " + at);
+				assertEquals(small.typeAt(r, c), large.typeAt(r, c), "type at " + at);
+				assertEquals(small.coinsAt(r, c), large.coinsAt(r, c),
+					"coins at " + at);
+				Node n= small.nodeAt(r, c);
+				for (Sewers.Direction d : Sewers.Direction.values()) {
+					Edge e= n.edge(d);
+					assertEquals(e == null ? 0 : e.length(), large.edgeWeight(v, d),
+						d + " weight at " + at);
+					assertEquals(e == null ? -1 : e.getOther(n).getId(), large.neighbor(v, d),
+						d + " neighbor at " + at);
+				}
+				if (large.isOpen(v)) {
+					assertEquals(small.minPathLengthToRing(n), large.distanceToRing(v),
+						"distance to ring at " + at);
+				}
+			}
+		}
+	}
+
+	@Test
+	void exploreSewerMatchesSewers() {
+		for (long seed= 0; seed < 100; seed++ ) {
+			assertSameGrid(Sewers.digExploreSewer(12, 20, new Random(seed)),
+				LargeSewers.digExploreSewer(12, 20, new Random(seed)));
+		}
+	}
+
+	@Test
+	void getOutSewerMatchesSewers() {
+		for (long seed= 0; seed < 100; seed++ ) {
+			assertSameGrid(Sewers.digGetOutSewer(12, 20, 6, 9, new Random(seed)),
+				LargeSewers.digGetOutSewer(12, 20, 6, 9, new Random(seed)));
+		}
+	}
+
+	@Test
+	void minPathLengthMatchesSewers() {
+		Sewers small= Sewers.digGetOutSewer(12, 20, 6, 9, new Random(3));
+		LargeSewers large= LargeSewers.digGetOutSewer(12, 20, 6, 9, new Random(3));
+		CsrGraph g= small.csr();
+		ShortestPaths fromEntrance= ShortestPaths.searchAll(g, g.index(small.entrance()));
+		for (Node n : small.graph()) {
+			assertEquals(fromEntrance.distance(g.index(n)),
+				large.minPathLength(large.entrance(), (int) n.getId()));
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NodeTest {
+
+	/** Assert that the lookups by node and by direction of n agree with its exits. */
+	private static void assertLookupsMatchExits(Node n) {
+		int found= 0;
+		for (Sewers.Direction d : Sewers.Direction.values()) {
+			Edge e= n.edge(d);
+			if (e == null) {
+				assertNull(n.neighbor(d));
+				continue;
+			}
+			found++ ;
+			Node q= e.getOther(n);
+			assertTrue(n.exits().contains(e));
+			assertEquals(d.row(), q.getTile().row() - n.getTile().row());
+			assertEquals(d.column(), q.getTile().column() - n.getTile().column());
+			assertSame(q, n.neighbor(d));
+			assertSame(e, n.edge(q));
+			assertTrue(n.isNeighbor(q));
+		}
+		assertEquals(n.exits().size(), found);
+	}
+
+	@Test
+	void edgesAreIndexedByDirection() {
+		for (long seed= 1; seed <= 5; seed++ ) {
+			for (Sewers s : SewersTesting.game(seed)) {
+				for (Node n : s.graph()) {
+					assertLookupsMatchExits(n);
+					assertFalse(n.isNeighbor(n));
+					assertThrows(IllegalArgumentException.class, () -> n.edge(n));
+				}
+			}
+		}
+	}
+
+	@Test
+	void edgesOffTheGridAreFoundByScanning() {
+		Sewers s= Sewers.deserialize(List.of("1:3,trgt:2",
+			"0,0,0,0,ENTRANCE=1-1,2-4",
+			"1,0,1,0,FLOOR=0-1",
+			"2,0,2,0,RING=0-4"));
+		Node entrance= s.entrance(), ring= s.ring(), floor= s.nodeAt(0, 1);
+		assertEquals(4, entrance.edge(ring).length);
+		assertTrue(entrance.isNeighbor(ring));
+		assertSame(floor, entrance.neighbor(Sewers.Direction.EAST));
+		assertNull(entrance.edge(Sewers.Direction.WEST));
+		assertFalse(floor.isNeighbor(ring));
+		assertSame(entrance, floor.neighbor(Sewers.Direction.WEST));
+	}
+}
@@ -0,0 +1,53 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class OffHeapStoreTest {
+
+	private static final long GIB= 1L << 30;
+
+	@Test
+	void chunksOfASmallStore() {
+		assertEquals(0, OffHeapStore.chunkLength(0, 0));
+		assertEquals(100, OffHeapStore.chunkLength(100, 0));
+		assertEquals(GIB, OffHeapStore.chunkLength(GIB, 0));
+	}
+
+	@Test
+	void lastChunkOfALargeStoreHasTheRest() {
+		// 3.5 GiB: chunks 2 and 3 start past 2^31 bytes.
+		long size= 3 * GIB + GIB / 2;
+		assertEquals(GIB, OffHeapStore.chunkLength(size, 0));
+		assertEquals(GIB, OffHeapStore.chunkLength(size, 1));
+		assertEquals(GIB, OffHeapStore.chunkLength(size, 2));
+		assertEquals(GIB / 2, OffHeapStore.chunkLength(size, 3));
+		// 30000 x 30000 ints
+		size= 4L * 30000 * 30000;
+		int last= (int) ((size - 1) / GIB);
+		assertEquals(size - last * GIB, OffHeapStore.chunkLength(size, last));
+	}
+
+	@Test
+	void storesValuesOfEachWidth() {
+		OffHeapStore s= new OffHeapStore(64);
+		s.putByte(3, (byte) -7);
+		s.putShort(10, (short) 30000);
+		s.putInt(60, -123456789);
+		assertEquals(-7, s.getByte(3));
+		assertEquals(0, s.getByte(2));
+		assertEquals(30000, s.getShort(10));
+		assertEquals(-123456789, s.getInt(60));
+	}
+
+	@Test
+	void fillIntsFillsThePrefix() {
+		OffHeapStore s= new OffHeapStore(40);
+		s.fillInts(5, 42);
+		for (int i= 0; i < 5; i++ ) {
+			assertEquals(42, s.getInt(4 * i));
+		}
+		assertEquals(0, s.getInt(20));
+	}
+}
@@ -0,0 +1,63 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Sewer systems and comparisons shared by the tests of the graph package */
+final class SewersTesting {
+
+	/** Constructor: no instances. */
+	private SewersTesting() {}
+
+	/** Return the explore sewer and the get-out sewer GameState(seed, ...) plays on, <br>
+	 * in that order. */
+	static Sewers[] game(long seed) {
+		Random rand= new Random(seed);
+		int rows= rand.nextInt(GameState.MAX_ROWS - GameState.MIN_ROWS + 1) + GameState.MIN_ROWS;
+		int cols= rand.nextInt(GameState.MAX_COLS - GameState.MIN_COLS + 1) + GameState.MIN_COLS;
+		Sewers seek= Sewers.digExploreSewer(rows, cols, rand);
+		Tile ring= seek.ring().getTile();
+		return new Sewers[] { seek,
+			Sewers.digGetOutSewer(rows, cols, ring.row(), ring.column(), rand) };
+	}
+
+	/** Return the IDs of the nodes of s in the order graph() iterates them. */
+	static List<Long> graphOrder(Sewers s) {
+		List<Long> ids= new ArrayList<>();
+		for (Node n : s.graph()) {
+			ids.add(n.getId());
+		}
+		return ids;
+	}
+
+	/** Assert that actual has the grid, tiles, edges (in Node.exits() order), entrance, <br>
+	 * ring and graph() order of expected. */
+	static void assertSameSewers(Sewers expected, Sewers actual) {
+		assertEquals(expected.rowCount(), actual.rowCount(), "rows");
+		assertEquals(expected.columnCount(), actual.columnCount(), "columns");
+		assertEquals(expected.entrance().getId(), actual.entrance().getId(), "entrance");
+		assertEquals(expected.ring().getId(), actual.ring().getId(), "ring");
+		for (int r= 0; r < expected.rowCount(); r++ ) {
+			for (int c= 0; c < expected.columnCount(); c++ ) {
+				String at= "(" + r + ", " + c + ")";
+				assertEquals(expected.typeAt(r, c), actual.typeAt(r, c), "type at " + at);
+				assertEquals(expected.coinsAt(r, c), actual.coinsAt(r, c), "coins at " + at);
+				assertEquals(exits(expected.nodeAt(r, c)), exits(actual.nodeAt(r, c)),
+					"exits at " + at);
+			}
+		}
+		assertEquals(graphOrder(expected), graphOrder(actual), "graph() order");
+	}
+
+	/** Return the exits of n as "other-length" strings, in Node.exits() order. */
+	private static List<String> exits(Node n) {
+		List<String> exits= new ArrayList<>();
+		for (Edge e : n.exits()) {
+			exits.add(e.getOther(n).getId() + "-" + e.length());
+		}
+		return exits;
+	}
+}
@@ -0,0 +1,79 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.junit.jupiter.api.Test;
+
+import diver.A7;
+import diver.Heap;
+
+class ShortestPathsTest {
+
+	/** Return the distances from source in g, found with java.util.PriorityQueue. */
+	private static int[] reference(CsrGraph g, int source) {
+		int[] dist= new int[g.size()];
+		Arrays.fill(dist, ShortestPaths.UNREACHED);
+		dist[source]= 0;
+		PriorityQueue<int[]> pq= new PriorityQueue<>((a, b) -> Integer.compare(a[1], b[1]));
+		pq.add(new int[] { source, 0 });
+		while (!pq.isEmpty()) {
+			int[] f= pq.poll();
+			if (f[1] > dist[f[0]]) continue;
+			for (int e= g.firstEdge(f[0]); e < g.endEdge(f[0]); e++ ) {
+				int w= g.target(e), d= f[1] + g.weight(e);
+				if (d < dist[w]) {
+					dist[w]= d;
+					pq.add(new int[] { w, d });
+				}
+			}
+		}
+		return dist;
+	}
+
+	@Test
+	void bucketsGiveTheDistancesOfAHeapSearch() {
+		for (long seed= 1; seed <= 10; seed++ ) {
+			Sewers s= SewersTesting.game(seed)[1];
+			CsrGraph g= s.csr();
+			int source= g.index(s.entrance());
+			ShortestPaths sp= ShortestPaths.searchAll(g, source);
+			int[] expected= reference(g, source);
+			for (int v= 0; v < g.size(); v++ ) {
+				assertEquals(expected[v], sp.distance(v), "seed " + seed + ", index " + v);
+			}
+		}
+	}
+
+	@Test
+	void pathsHaveTheLengthOfA7sHeapPaths() {
+		for (long seed= 1; seed <= 10; seed++ ) {
+			Sewers s= SewersTesting.game(seed)[1];
+			List<Node> path= ShortestPaths.path(s.entrance(), s.ring());
+			List<Node> heapPath= A7.dijkstra(s.entrance(), s.ring(), new Heap<>(true));
+			assertEquals(s.entrance(), path.get(0));
+			assertEquals(s.ring(), path.get(path.size() - 1));
+			assertEquals(A7.sumOfPath(heapPath), A7.sumOfPath(path), "seed " + seed);
+			CsrGraph g= s.csr();
+			assertEquals(A7.sumOfPath(path),
+				ShortestPaths.search(s.entrance(), s.ring()).distance(g.index(s.ring())));
+		}
+	}
+
+	@Test
+	void edgesHeavierThanTheBucketsFallBackToAHeap() {
+		int heavy= Sewers.MAX_EDGE_WEIGHT + 5;
+		Sewers s= Sewers.deserialize(List.of("1:3,trgt:2",
+			"0,0,0,0,ENTRANCE=1-" + heavy,
+			"1,0,1,0,FLOOR=0-" + heavy + ",2-3",
+			"2,0,2,0,RING=1-3"));
+		CsrGraph g= s.csr();
+		ShortestPaths sp= ShortestPaths.searchAll(g, g.index(0, 0));
+		assertEquals(heavy, sp.distance(g.index(0, 1)));
+		assertEquals(heavy + 3, sp.distance(g.index(0, 2)));
+		assertEquals(3, ShortestPaths.path(s.entrance(), s.ring()).size());
+	}
+}
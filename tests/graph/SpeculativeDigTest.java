@@ -0,0 +1,57 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SpeculativeDigTest {
+
+	private static ForkJoinPool one, four;
+
+	@BeforeAll
+	static void startPools() {
+		one= new ForkJoinPool(1);
+		four= new ForkJoinPool(4);
+	}
+
+	@AfterAll
+	static void stopPools() {
+		one.shutdown();
+		four.shutdown();
+	}
+
+	@Test
+	void exploreSewerDependsOnlyOnTheSeed() {
+		for (long seed= 0; seed < 20; seed++ ) {
+			Sewers a= Sewers.digExploreSewer(12, 20, new Random(seed), one);
+			Sewers b= Sewers.digExploreSewer(12, 20, new Random(seed), four);
+			SewersTesting.assertSameSewers(a, b);
+			assertTrue(a.minPathLengthToRing(a.entrance()) >= Sewers.minRingDistance(12, 20));
+		}
+	}
+
+	@Test
+	void getOutSewerDependsOnlyOnTheSeed() {
+		for (long seed= 0; seed < 20; seed++ ) {
+			Sewers a= Sewers.digGetOutSewer(12, 20, 5, 7, new Random(seed), one);
+			Sewers b= Sewers.digGetOutSewer(12, 20, 5, 7, new Random(seed), four);
+			SewersTesting.assertSameSewers(a, b);
+			assertEquals(Tile.TileType.FLOOR, a.typeAt(5, 7));
+		}
+	}
+
+	@Test
+	void digTakesOneLongFromRand() {
+		Random rand= new Random(42);
+		Random expected= new Random(42);
+		Sewers.digExploreSewer(12, 20, rand, four);
+		expected.nextLong();
+		assertEquals(expected.nextLong(), rand.nextLong());
+	}
+}
@@ -0,0 +1,68 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TextSewerReaderTest {
+
+	/** Return the sewer system Sewers.readText reads from lines, each ended by eol. */
+	private static Sewers read(List<String> lines, String eol) throws IOException {
+		byte[] b= (String.join(eol, lines) + eol).getBytes(StandardCharsets.UTF_8);
+		return Sewers.readText(Channels.newChannel(new ByteArrayInputStream(b)));
+	}
+
+	@Test
+	void readTextMatchesDeserialize() throws IOException {
+		// 300 games cover the open-tile counts at which a HashSet resizes.
+		for (long seed= 0; seed < 300; seed++ ) {
+			for (Sewers s : SewersTesting.game(seed)) {
+				List<String> lines= s.serialize();
+				SewersTesting.assertSameSewers(Sewers.deserialize(lines), read(lines, "\n"));
+			}
+		}
+	}
+
+	@Test
+	void readTextKeepsGeneratedSewers() throws IOException {
+		for (long seed= 0; seed < 20; seed++ ) {
+			for (Sewers s : SewersTesting.game(seed)) {
+				SewersTesting.assertSameSewers(s, read(s.serialize(), "\n"));
+			}
+		}
+	}
+
+	@Test
+	void readTextAcceptsCrlf() throws IOException {
+		Sewers s= SewersTesting.game(5)[1];
+		SewersTesting.assertSameSewers(s, read(s.serialize(), "\r\n"));
+	}
+
+	@Test
+	void readTextRejectsEdgeToMissingNode() {
+		List<String> lines= List.of("1:2,trgt:0", "0,0,0,0,ENTRANCE=1-1");
+		assertThrows(IOException.class, () -> read(lines, "\n"));
+	}
+
+	@Test
+	void readTextRejectsBadType() {
+		List<String> lines= List.of("1:2,trgt:1", "0,0,0,0,ENTRANCE=1-1", "1,0,1,0,LAVA=0-1");
+		assertThrows(IOException.class, () -> read(lines, "\n"));
+	}
+
+	@Test
+	void readTextRejectsNonBlockingChannel() throws IOException {
+		Pipe p= Pipe.open();
+		try (Pipe.SourceChannel source= p.source(); Pipe.SinkChannel sink= p.sink()) {
+			source.configureBlocking(false);
+			assertThrows(IllegalArgumentException.class, () -> Sewers.readText(source));
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TileTest {
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void takingCoinsLeavesTheOriginalValue() {
+		TileGrid g= new TileGrid(3, 4);
+		Tile t= new Tile(g, 2, 3, 7, Tile.TileType.FLOOR);
+		assertEquals(Tile.TileType.FLOOR, t.type());
+		assertEquals(7, t.coins());
+		assertEquals(7, t.takeCoins());
+		assertEquals(0, t.coins());
+		assertEquals(0, g.coinsAt(11));
+		assertEquals(7, t.originalCoinValue());
+	}
+
+	@Test
+	void aViewReadsAndWritesItsCell() {
+		TileGrid g= new TileGrid(3, 4);
+		Tile t= new Tile(g, 2, 1, 9, Tile.TileType.FLOOR);
+		assertEquals(9, t.index());
+		assertEquals(9, g.coinsAt(9));
+		t.setType(Tile.TileType.ENTRANCE);
+		assertEquals(Tile.TileType.ENTRANCE, g.typeAt(9));
+		assertEquals(Tile.TileType.WALL, g.typeAt(0));
+	}
+}
@@ -0,0 +1,34 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import diver.McDiver;
+
+class TournamentTest {
+
+	/** Return the results of McDiver on seeds, played on threads threads, as lines. */
+	private static List<String> play(long[] seeds, int threads) throws InterruptedException {
+		return Tournament.play(seeds, threads, McDiver::new, false).stream()
+			.map(Tournament.Result::toString).collect(Collectors.toList());
+	}
+
+	@Test
+	void resultsDoNotDependOnTheNumberOfThreads() throws InterruptedException {
+		long[] seeds= Tournament.seeds(1, 24);
+		assertEquals(play(seeds, 1), play(seeds, 4));
+	}
+
+	@Test
+	void seedsAreTheOnesGameStateMainPlays() {
+		long[] seeds= Tournament.seeds(5, 3);
+		assertEquals(5, seeds[0]);
+		assertEquals(new Random(5).nextLong(), seeds[1]);
+		assertEquals(new Random(seeds[1]).nextLong(), seeds[2]);
+	}
+}